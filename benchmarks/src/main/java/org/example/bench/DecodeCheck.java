@@ -0,0 +1,388 @@
+package org.example.bench;
+
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.CreationHelper;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.usermodel.Font;
+import org.apache.poi.ss.usermodel.FormulaError;
+import org.apache.poi.ss.usermodel.RichTextString;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.ss.usermodel.WorkbookFactory;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.example.tool.CliArgs;
+import org.example.tool.TableSource;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.CTWorkbook;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+// Differential check of the cell decoder: generated workbooks are read through SheetReader (via TableSource) and through
+// WorkbookFactory + DataFormatter.formatCellValue (what excel-compare used before the SAX reader), and every cell of
+// every sheet must come out the same. Covers number and date formats under both date systems, custom and conditional
+// formats, booleans, errors, plain and rich shared strings, inline strings, plain, shared, array and data table
+// formulas, and a workbook without a styles part. Exits with 1 if any cell differs.
+public final class DecodeCheck {
+	private static final int MAX_REPORTED = 20;
+	private static final List<String> FORMATS = List.of("General", "0", "0.00", "#,##0", "#,##0.00", "0%", "0.00%",
+			"0.00E+00", "# ?/?", "# ??/??", "@", "m/d/yy", "yyyy-mm-dd", "yyyy-mm-dd hh:mm:ss", "h:mm AM/PM",
+			"[h]:mm:ss", "mmm yyyy", "dddd", "#,##0.00 \"kr\"", "[Red]-#,##0.00;[Blue]#,##0.00",
+			"[>=100]\"big \"0;\"small \"0", "0.0,\"k\"", "000000", "\"ID-\"0", "#,##0_);(#,##0)", "[$-409]mmmm d, yyyy");
+
+	private DecodeCheck() {
+	}
+
+	public static void main(String[] args) throws Exception {
+		CliArgs cli = new CliArgs(args);
+		Path data = Path.of(option(cli, "data", System.getProperty("java.io.tmpdir"))).resolve("internaltool-decode");
+		int rows = Integer.parseInt(option(cli, "rows", "2000"));
+		long seed = Long.parseLong(option(cli, "seed", "42"));
+		Files.createDirectories(data);
+
+		List<Path> workbooks = new ArrayList<>();
+		workbooks.add(write(data.resolve("typed-1900.xlsx"), typed(new XSSFWorkbook(), rows, seed)));
+		XSSFWorkbook date1904 = new XSSFWorkbook();
+		CTWorkbook properties = date1904.getCTWorkbook();
+		(properties.isSetWorkbookPr() ? properties.getWorkbookPr() : properties.addNewWorkbookPr()).setDate1904(true);
+		workbooks.add(write(data.resolve("typed-1904.xlsx"), typed(date1904, rows, seed)));
+		workbooks.add(write(data.resolve("typed-streamed.xlsx"), typed(new SXSSFWorkbook(), rows, seed)));
+		workbooks.add(write(data.resolve("typed.xls"), typed(new HSSFWorkbook(), rows, seed)));
+		workbooks.add(writeFormulas(data.resolve("formulas.xlsx"), rows));
+		workbooks.add(writeUnstyled(data.resolve("unstyled.xlsx"), rows, seed));
+
+		int failures = 0;
+		for (Path workbook : workbooks) {
+			for (String sheet : sheetNames(workbook)) {
+				failures += check(workbook, sheet);
+			}
+		}
+		if (failures > 0) {
+			System.out.println(failures + " sheets decode differently");
+			System.exit(1);
+		}
+	}
+
+	private static int check(Path workbook, String sheet) throws Exception {
+		Map<String, String> expected = readWithDataFormatter(workbook, sheet);
+		Map<String, String> actual = new TreeMap<>();
+		TableSource.open(workbook, sheet).read((rowIndex, cells, width) -> {
+			for (int col = 0; col < width; col++) {
+				if (cells[col] != null && !cells[col].isEmpty()) {
+					actual.put(new CellReference(rowIndex, col).formatAsString(), cells[col]);
+				}
+			}
+		});
+		List<String> differences = new ArrayList<>();
+		for (Map.Entry<String, String> entry : expected.entrySet()) {
+			String value = actual.get(entry.getKey());
+			if (!entry.getValue().equals(value)) {
+				differences.add(entry.getKey() + ": expected '" + entry.getValue() + "' but read '" + value + "'");
+			}
+		}
+		for (Map.Entry<String, String> entry : actual.entrySet()) {
+			if (!expected.containsKey(entry.getKey())) {
+				differences.add(entry.getKey() + ": expected nothing but read '" + entry.getValue() + "'");
+			}
+		}
+		System.out.printf("%-20s %-10s %7d cells  %s%n", workbook.getFileName(), sheet, expected.size(),
+				differences.isEmpty() ? "OK" : differences.size() + " DIFFERENT");
+		differences.stream().limit(MAX_REPORTED).forEach(difference -> System.out.println("    " + difference));
+		return differences.isEmpty() ? 0 : 1;
+	}
+
+	private static Map<String, String> readWithDataFormatter(Path path, String sheetName) throws IOException {
+		Map<String, String> cells = new TreeMap<>();
+		try (Workbook workbook = WorkbookFactory.create(path.toFile(), null, true)) {
+			DataFormatter formatter = new DataFormatter();
+			for (Row row : workbook.getSheet(sheetName)) {
+				for (Cell cell : row) {
+					String value = formatter.formatCellValue(cell);
+					if (!value.isEmpty()) {
+						cells.put(new CellReference(cell.getRowIndex(), cell.getColumnIndex()).formatAsString(), value);
+					}
+				}
+			}
+		}
+		return cells;
+	}
+
+	private static List<String> sheetNames(Path path) throws IOException {
+		List<String> names = new ArrayList<>();
+		try (Workbook workbook = WorkbookFactory.create(path.toFile(), null, true)) {
+			workbook.forEach(sheet -> names.add(sheet.getSheetName()));
+		}
+		return names;
+	}
+
+	// One column per number format, then booleans, errors, a plain formula, rich and plain text.
+	private static Workbook typed(Workbook workbook, int rows, long seed) {
+		Random random = new Random(seed);
+		CreationHelper helper = workbook.getCreationHelper();
+		List<CellStyle> styles = new ArrayList<>();
+		for (String format : FORMATS) {
+			CellStyle style = workbook.createCellStyle();
+			style.setDataFormat(helper.createDataFormat().getFormat(format));
+			styles.add(style);
+		}
+		Font bold = workbook.createFont();
+		bold.setBold(true);
+		Sheet sheet = workbook.createSheet("Typed");
+		Row header = sheet.createRow(0);
+		for (int col = 0; col < FORMATS.size(); col++) {
+			header.createCell(col).setCellValue(FORMATS.get(col));
+		}
+		int extra = FORMATS.size();
+		String[] labels = {"Boolean", "Error", "Formula", "Rich", "Text", "Blank"};
+		for (int i = 0; i < labels.length; i++) {
+			header.createCell(extra + i).setCellValue(labels[i]);
+		}
+		FormulaError[] errors = {FormulaError.DIV0, FormulaError.NA, FormulaError.VALUE, FormulaError.REF,
+				FormulaError.NAME, FormulaError.NUM, FormulaError.NULL};
+		for (int r = 1; r <= rows; r++) {
+			Row row = sheet.createRow(r);
+			for (int col = 0; col < FORMATS.size(); col++) {
+				Cell cell = row.createCell(col);
+				cell.setCellValue(number(random));
+				cell.setCellStyle(styles.get(col));
+			}
+			row.createCell(extra).setCellValue(random.nextBoolean());
+			row.createCell(extra + 1).setCellErrorValue(errors[r % errors.length].getCode());
+			row.createCell(extra + 2).setCellFormula("A" + (r + 1) + "*2+B" + (r + 1));
+			RichTextString rich = helper.createRichTextString("Rich " + r + " text");
+			rich.applyFont(0, 4, bold);
+			row.createCell(extra + 3).setCellValue(rich);
+			row.createCell(extra + 4).setCellValue(r % 3 == 0 ? "  padded " + r + " " : "x_x0041_" + r);
+			row.createCell(extra + 5).setCellStyle(styles.get(r % styles.size()));
+		}
+		return workbook;
+	}
+
+	private static double number(Random random) {
+		return switch (random.nextInt(8)) {
+			case 0 -> random.nextInt(1000);
+			case 1 -> -random.nextInt(100000);
+			case 2 -> random.nextDouble() * 1000;
+			case 3 -> (random.nextDouble() - 0.5) * 1e-6;
+			case 4 -> Math.floor(random.nextDouble() * 2e11);
+			case 5 -> 1 + random.nextInt(60000) + random.nextInt(86400) / 86400.0;
+			case 6 -> random.nextDouble() * 1e20;
+			default -> random.nextInt(3) == 0 ? 0 : random.nextInt(100) / 8.0;
+		};
+	}
+
+	private static Path write(Path target, Workbook workbook) throws IOException {
+		try (workbook; OutputStream out = Files.newOutputStream(target)) {
+			workbook.write(out);
+		}
+		if (workbook instanceof SXSSFWorkbook streamed) {
+			streamed.dispose();
+		}
+		return target;
+	}
+
+	// Written as raw SpreadsheetML because POI cannot create shared or data table formulas. Column C to F and the H:I
+	// block are shared formulas filled down from row 2, G2:G4 is an array formula, J2:J3 a data table; K holds inline
+	// strings, L errors and booleans with and without formulas.
+	private static Path writeFormulas(Path target, int rows) throws IOException {
+		int last = rows + 1;
+		StringBuilder sheet = new StringBuilder(worksheetStart());
+		sheet.append("<row r=\"1\">");
+		String[] headers = {"Id", "Value", "Double", "Running", "Joined", "Rated", "Array", "Block", "Block2", "Table",
+				"Inline", "Other"};
+		for (int col = 0; col < headers.length; col++) {
+			sheet.append(inline(new CellReference(0, col).formatAsString(), headers[col]));
+		}
+		sheet.append("</row>");
+		for (int r = 2; r <= last; r++) {
+			sheet.append("<row r=\"").append(r).append("\">");
+			sheet.append("<c r=\"A").append(r).append("\"><v>").append(r - 1).append("</v></c>");
+			sheet.append("<c r=\"B").append(r).append("\" s=\"1\"><v>").append((r * 37 % 101) / 4.0).append("</v></c>");
+			shared(sheet, "C", r, 0, "B2*2", last);
+			shared(sheet, "D", r, 1, "SUM($B$2:B2)", last);
+			shared(sheet, "E", r, 2, "Other!A2&\"-\"&$A2", last);
+			shared(sheet, "F", r, 3, "Rate*B2", last);
+			if (r == 2) {
+				sheet.append("<c r=\"G2\"><f t=\"array\" ref=\"G2:G4\">B2:B4*10</f><v>0</v></c>");
+			} else if (r <= 4) {
+				sheet.append("<c r=\"G").append(r).append("\"><v>0</v></c>");
+			}
+			sharedBlock(sheet, r, last);
+			if (r == 2) {
+				sheet.append("<c r=\"J2\"><f t=\"dataTable\" ref=\"J2:J3\" dt2D=\"0\" dtr=\"0\" r1=\"B2\"/><v>5</v></c>");
+			} else if (r == 3) {
+				sheet.append("<c r=\"J3\"><v>6</v></c>");
+			}
+			sheet.append(switch (r % 4) {
+				case 0 -> "<c r=\"K" + r + "\" t=\"inlineStr\"><is><t xml:space=\"preserve\"> plain " + r + " </t></is></c>";
+				case 1 -> "<c r=\"K" + r + "\" t=\"inlineStr\"><is><r><t>Rich </t></r><r><rPr><b/></rPr><t>run_x000A_"
+						+ r + "</t></r><rPh sb=\"0\" eb=\"1\"><t>ru</t></rPh></is></c>";
+				case 2 -> "<c r=\"K" + r + "\" t=\"inlineStr\"><is><t>esc_x0041__x005f_x0042_" + r + "</t></is></c>";
+				default -> "<c r=\"K" + r + "\"/>";
+			});
+			sheet.append(switch (r % 5) {
+				case 0 -> "<c r=\"L" + r + "\" t=\"e\"><v>#N/A</v></c>";
+				case 1 -> "<c r=\"L" + r + "\" t=\"e\"><f>1/0</f><v>#DIV/0!</v></c>";
+				case 2 -> "<c r=\"L" + r + "\" t=\"b\"><v>" + (r % 2) + "</v></c>";
+				case 3 -> "<c r=\"L" + r + "\" t=\"b\"><f>B" + r + "&gt;10</f><v>1</v></c>";
+				default -> "<c r=\"L" + r + "\" t=\"str\"><f>\"a\"&amp;A" + r + "</f><v>a" + (r - 1) + "</v></c>";
+			});
+			sheet.append("</row>");
+		}
+		sheet.append("</sheetData></worksheet>");
+
+		StringBuilder other = new StringBuilder(worksheetStart());
+		for (int r = 1; r <= last; r++) {
+			other.append("<row r=\"").append(r).append("\">").append(inline("A" + r, "other " + r)).append("</row>");
+		}
+		other.append("</sheetData></worksheet>");
+
+		try (ZipOutputStream zip = new ZipOutputStream(Files.newOutputStream(target))) {
+			entry(zip, "[Content_Types].xml", """
+					<?xml version="1.0" encoding="UTF-8" standalone="yes"?>
+					<Types xmlns="http://schemas.openxmlformats.org/package/2006/content-types">
+					<Default Extension="rels" ContentType="application/vnd.openxmlformats-package.relationships+xml"/>
+					<Default Extension="xml" ContentType="application/xml"/>
+					<Override PartName="/xl/workbook.xml" ContentType="application/vnd.openxmlformats-officedocument.spreadsheetml.sheet.main+xml"/>
+					<Override PartName="/xl/worksheets/sheet1.xml" ContentType="application/vnd.openxmlformats-officedocument.spreadsheetml.worksheet+xml"/>
+					<Override PartName="/xl/worksheets/sheet2.xml" ContentType="application/vnd.openxmlformats-officedocument.spreadsheetml.worksheet+xml"/>
+					<Override PartName="/xl/styles.xml" ContentType="application/vnd.openxmlformats-officedocument.spreadsheetml.styles+xml"/>
+					</Types>""");
+			entry(zip, "_rels/.rels", """
+					<?xml version="1.0" encoding="UTF-8" standalone="yes"?>
+					<Relationships xmlns="http://schemas.openxmlformats.org/package/2006/relationships">
+					<Relationship Id="rId1" Type="http://schemas.openxmlformats.org/officeDocument/2006/relationships/officeDocument" Target="xl/workbook.xml"/>
+					</Relationships>""");
+			entry(zip, "xl/workbook.xml", """
+					<?xml version="1.0" encoding="UTF-8" standalone="yes"?>
+					<workbook xmlns="http://schemas.openxmlformats.org/spreadsheetml/2006/main" xmlns:r="http://schemas.openxmlformats.org/officeDocument/2006/relationships">
+					<sheets><sheet name="Formulas" sheetId="1" r:id="rId1"/><sheet name="Other" sheetId="2" r:id="rId2"/></sheets>
+					<definedNames><definedName name="Rate">Other!$A$1</definedName></definedNames>
+					</workbook>""");
+			entry(zip, "xl/_rels/workbook.xml.rels", """
+					<?xml version="1.0" encoding="UTF-8" standalone="yes"?>
+					<Relationships xmlns="http://schemas.openxmlformats.org/package/2006/relationships">
+					<Relationship Id="rId1" Type="http://schemas.openxmlformats.org/officeDocument/2006/relationships/worksheet" Target="worksheets/sheet1.xml"/>
+					<Relationship Id="rId2" Type="http://schemas.openxmlformats.org/officeDocument/2006/relationships/worksheet" Target="worksheets/sheet2.xml"/>
+					<Relationship Id="rId3" Type="http://schemas.openxmlformats.org/officeDocument/2006/relationships/styles" Target="styles.xml"/>
+					</Relationships>""");
+			entry(zip, "xl/styles.xml", """
+					<?xml version="1.0" encoding="UTF-8" standalone="yes"?>
+					<styleSheet xmlns="http://schemas.openxmlformats.org/spreadsheetml/2006/main">
+					<numFmts count="1"><numFmt numFmtId="164" formatCode="0.000"/></numFmts>
+					<fonts count="1"><font><sz val="11"/><name val="Calibri"/></font></fonts>
+					<fills count="2"><fill><patternFill patternType="none"/></fill><fill><patternFill patternType="gray125"/></fill></fills>
+					<borders count="1"><border><left/><right/><top/><bottom/><diagonal/></border></borders>
+					<cellStyleXfs count="1"><xf numFmtId="0" fontId="0" fillId="0" borderId="0"/></cellStyleXfs>
+					<cellXfs count="2"><xf numFmtId="0" fontId="0" fillId="0" borderId="0" xfId="0"/><xf numFmtId="164" fontId="0" fillId="0" borderId="0" xfId="0" applyNumberFormat="1"/></cellXfs>
+					</styleSheet>""");
+			entry(zip, "xl/worksheets/sheet1.xml", sheet.toString());
+			entry(zip, "xl/worksheets/sheet2.xml", other.toString());
+		}
+		return target;
+	}
+
+	// A workbook without a styles part, as some exporters write it: every number is formatted as General.
+	private static Path writeUnstyled(Path target, int rows, long seed) throws IOException {
+		Random random = new Random(seed);
+		StringBuilder sheet = new StringBuilder(worksheetStart());
+		sheet.append("<row r=\"1\">").append(inline("A1", "Id")).append(inline("B1", "Value")).append("</row>");
+		for (int r = 2; r <= rows + 1; r++) {
+			sheet.append("<row r=\"").append(r).append("\">");
+			sheet.append("<c r=\"A").append(r).append("\"><v>").append(r - 1).append("</v></c>");
+			sheet.append("<c r=\"B").append(r).append("\"><v>").append(number(random)).append("</v></c>");
+			sheet.append("</row>");
+		}
+		sheet.append("</sheetData></worksheet>");
+
+		try (ZipOutputStream zip = new ZipOutputStream(Files.newOutputStream(target))) {
+			entry(zip, "[Content_Types].xml", """
+					<?xml version="1.0" encoding="UTF-8" standalone="yes"?>
+					<Types xmlns="http://schemas.openxmlformats.org/package/2006/content-types">
+					<Default Extension="rels" ContentType="application/vnd.openxmlformats-package.relationships+xml"/>
+					<Default Extension="xml" ContentType="application/xml"/>
+					<Override PartName="/xl/workbook.xml" ContentType="application/vnd.openxmlformats-officedocument.spreadsheetml.sheet.main+xml"/>
+					<Override PartName="/xl/worksheets/sheet1.xml" ContentType="application/vnd.openxmlformats-officedocument.spreadsheetml.worksheet+xml"/>
+					</Types>""");
+			entry(zip, "_rels/.rels", """
+					<?xml version="1.0" encoding="UTF-8" standalone="yes"?>
+					<Relationships xmlns="http://schemas.openxmlformats.org/package/2006/relationships">
+					<Relationship Id="rId1" Type="http://schemas.openxmlformats.org/officeDocument/2006/relationships/officeDocument" Target="xl/workbook.xml"/>
+					</Relationships>""");
+			entry(zip, "xl/workbook.xml", """
+					<?xml version="1.0" encoding="UTF-8" standalone="yes"?>
+					<workbook xmlns="http://schemas.openxmlformats.org/spreadsheetml/2006/main" xmlns:r="http://schemas.openxmlformats.org/officeDocument/2006/relationships">
+					<sheets><sheet name="Unstyled" sheetId="1" r:id="rId1"/></sheets>
+					</workbook>""");
+			entry(zip, "xl/_rels/workbook.xml.rels", """
+					<?xml version="1.0" encoding="UTF-8" standalone="yes"?>
+					<Relationships xmlns="http://schemas.openxmlformats.org/package/2006/relationships">
+					<Relationship Id="rId1" Type="http://schemas.openxmlformats.org/officeDocument/2006/relationships/worksheet" Target="worksheets/sheet1.xml"/>
+					</Relationships>""");
+			entry(zip, "xl/worksheets/sheet1.xml", sheet.toString());
+		}
+		return target;
+	}
+
+	private static String worksheetStart() {
+		return "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>"
+				+ "<worksheet xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\"><sheetData>";
+	}
+
+	private static void shared(StringBuilder sheet, String column, int row, int index, String master, int last) {
+		sheet.append("<c r=\"").append(column).append(row).append("\">");
+		if (row == 2) {
+			sheet.append("<f t=\"shared\" ref=\"").append(column).append("2:").append(column).append(last)
+					.append("\" si=\"").append(index).append("\">").append(escape(master)).append("</f>");
+		} else {
+			sheet.append("<f t=\"shared\" si=\"").append(index).append("\"/>");
+		}
+		sheet.append("<v>0</v></c>");
+	}
+
+	// A two-column shared formula, so the shift applies to columns as well as rows.
+	private static void sharedBlock(StringBuilder sheet, int row, int last) {
+		for (String column : List.of("H", "I")) {
+			sheet.append("<c r=\"").append(column).append(row).append("\">");
+			if (row == 2 && column.equals("H")) {
+				sheet.append("<f t=\"shared\" ref=\"H2:I").append(last).append("\" si=\"4\">A2+B$2</f>");
+			} else {
+				sheet.append("<f t=\"shared\" si=\"4\"/>");
+			}
+			sheet.append("<v>0</v></c>");
+		}
+	}
+
+	private static String inline(String reference, String text) {
+		return "<c r=\"" + reference + "\" t=\"inlineStr\"><is><t>" + escape(text) + "</t></is></c>";
+	}
+
+	private static String escape(String text) {
+		return text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;").replace("\"", "&quot;");
+	}
+
+	private static void entry(ZipOutputStream zip, String name, String content) throws IOException {
+		zip.putNextEntry(new ZipEntry(name));
+		zip.write(content.getBytes(StandardCharsets.UTF_8));
+		zip.closeEntry();
+	}
+
+	private static String option(CliArgs cli, String key, String fallback) {
+		String value = cli.getOptional(key);
+		return value == null ? fallback : value;
+	}
+}
@@ -0,0 +1,41 @@
+package org.example.bench;
+
+import org.example.tool.ContentHash;
+import org.example.tool.KeyIndex;
+import org.example.tool.RunControl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+// Key extraction is the KeyIndex build; row extraction materializes every row the way the output sections do.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+@Fork(1)
+public class ExtractBenchmark {
+	@Benchmark
+	public KeyIndex extractKeys(ParsedTables tables) {
+		return KeyIndex.build(tables.left, ParsedTables.KEY_COLUMNS, ParsedTables.NORMALIZATION, new RunControl());
+	}
+
+	@Benchmark
+	public void extractRows(ParsedTables tables, Blackhole blackhole) {
+		int width = tables.width();
+		for (int row = 0; row < tables.left.rowCount(); row++) {
+			blackhole.consume(tables.left.row(row, width));
+		}
+	}
+
+	@Benchmark
+	public long[] contentHashes(ParsedTables tables) {
+		return ContentHash.rows(tables.left, tables.contentColumns, new RunControl());
+	}
+}
@@ -0,0 +1,194 @@
+package org.example.bench;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.ss.usermodel.WorkbookFactory;
+import org.apache.poi.util.IOUtils;
+import org.example.tool.KeyIndex;
+import org.example.tool.ParsedSheet;
+import org.example.tool.RunControl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+// twoPasses is the extraction excel-compare did before it was merged, copied from that version: the sheet is loaded
+// through WorkbookFactory, then walked once for the ordered key set and once for the rows by key, each walk formatting
+// its cells with DataFormatter. loadAndTwoPasses adds the workbook load, so it is the whole old path for one side.
+// onePass is the current path for one side: a single read into the columnar sheet, then the key index built from it.
+// The key is the Id column, as in the other benchmarks.
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ExtractPassBenchmark {
+	@Benchmark
+	public void twoPasses(LoadedSheet loaded, Blackhole blackhole) {
+		blackhole.consume(extractKeys(loaded.data));
+		blackhole.consume(extractRows(loaded.data));
+	}
+
+	@Benchmark
+	public void loadAndTwoPasses(LargeTable table, Blackhole blackhole) throws Exception {
+		try (InputStream input = new FileInputStream(table.path.toFile());
+				 Workbook workbook = WorkbookFactory.create(input)) {
+			SheetData data = sheetData(workbook.getSheet(WorkbookGenerator.SHEET));
+			blackhole.consume(extractKeys(data));
+			blackhole.consume(extractRows(data));
+		}
+	}
+
+	@Benchmark
+	public KeyIndex onePass(LargeTable table) throws Exception {
+		RunControl control = new RunControl();
+		ParsedSheet sheet = ParsedSheet.read(table.path, WorkbookGenerator.SHEET, control);
+		return KeyIndex.build(sheet, ParsedTables.KEY_COLUMNS, ParsedTables.NORMALIZATION, control);
+	}
+
+	private static SheetData sheetData(Sheet sheet) {
+		Row header = sheet.getRow(0);
+		Map<String, Integer> headerIndex = new HashMap<>();
+		List<String> headers = new ArrayList<>();
+		if (header != null) {
+			DataFormatter formatter = new DataFormatter();
+			for (Cell cell : header) {
+				String value = formatter.formatCellValue(cell).trim();
+				headers.add(value);
+				if (!value.isEmpty() && !headerIndex.containsKey(value)) {
+					headerIndex.put(value, cell.getColumnIndex());
+				}
+			}
+		}
+		return new SheetData(sheet, headers, headerIndex, headers.get(ParsedTables.KEY_COLUMNS[0]));
+	}
+
+	private static Set<Key> extractKeys(SheetData data) {
+		Set<Key> keys = new LinkedHashSet<>();
+		DataFormatter formatter = new DataFormatter();
+		int lastRow = data.sheet.getLastRowNum();
+		for (int i = 1; i <= lastRow; i++) {
+			Row row = data.sheet.getRow(i);
+			if (row == null) {
+				continue;
+			}
+			List<String> values = new ArrayList<>();
+			boolean allBlank = true;
+			Integer index = data.headerIndex.get(data.keyHeader);
+			String value = index == null ? "" : formatter.formatCellValue(row.getCell(index)).trim();
+			if (!value.isEmpty()) {
+				allBlank = false;
+			}
+			values.add(value);
+			if (!allBlank) {
+				keys.add(new Key(List.copyOf(values)));
+			}
+		}
+		return keys;
+	}
+
+	private static LinkedHashMap<Key, RowData> extractRows(SheetData data) {
+		LinkedHashMap<Key, RowData> rows = new LinkedHashMap<>();
+		DataFormatter formatter = new DataFormatter();
+		int lastRow = data.sheet.getLastRowNum();
+		for (int i = 1; i <= lastRow; i++) {
+			Row row = data.sheet.getRow(i);
+			if (row == null) {
+				continue;
+			}
+			List<String> values = new ArrayList<>();
+			for (int col = 0; col < data.headers.size(); col++) {
+				String value = formatter.formatCellValue(row.getCell(col)).trim();
+				values.add(value);
+			}
+
+			List<String> keyValues = new ArrayList<>();
+			boolean allBlank = true;
+			Integer index = data.headerIndex.get(data.keyHeader);
+			String value = index == null ? "" : formatter.formatCellValue(row.getCell(index)).trim();
+			if (!value.isEmpty()) {
+				allBlank = false;
+			}
+			keyValues.add(value);
+			if (allBlank) {
+				continue;
+			}
+			Key key = new Key(List.copyOf(keyValues));
+			rows.putIfAbsent(key, new RowData(List.copyOf(values)));
+		}
+		return rows;
+	}
+
+	private record SheetData(Sheet sheet, List<String> headers, Map<String, Integer> headerIndex, String keyHeader) {
+	}
+
+	private record Key(List<String> values) {
+	}
+
+	private record RowData(List<String> values) {
+	}
+
+	@State(Scope.Benchmark)
+	public static class LargeTable {
+		@Param({"500000"})
+		public int rows;
+
+		@Param({"10"})
+		public int columns;
+
+		Path path;
+
+		@Setup
+		public void generate() throws Exception {
+			// The old path opened the workbook from a stream, which POI refuses for a sheet part over 100 MB.
+			IOUtils.setByteArrayMaxOverride(Integer.MAX_VALUE);
+			Path directory = Path.of(System.getProperty("bench.data", System.getProperty("java.io.tmpdir")))
+					.resolve("internaltool-bench");
+			path = WorkbookGenerator.generate(directory, "xlsx", rows, columns, rows).left();
+		}
+	}
+
+	// The old path held the whole workbook in memory while it extracted.
+	@State(Scope.Benchmark)
+	public static class LoadedSheet {
+		Workbook workbook;
+		SheetData data;
+
+		@Setup
+		public void load(LargeTable table) throws Exception {
+			try (InputStream input = new FileInputStream(table.path.toFile())) {
+				workbook = WorkbookFactory.create(input);
+			}
+			data = sheetData(workbook.getSheet(WorkbookGenerator.SHEET));
+		}
+
+		@TearDown
+		public void close() throws Exception {
+			workbook.close();
+		}
+	}
+}
@@ -0,0 +1,82 @@
+package org.example.bench;
+
+import org.example.CliApp;
+import org.example.tool.CliArgs;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+// Checks that a row is only skipped when its key cells are empty, not when a key normalizes to "": a phone key of
+// "N/A" keys its row under "", so it shows up in the compare instead of disappearing from every section. Runs
+// excel-compare in memory and with --memory-limit 0 (spilled to disk), and both must print the expected sections.
+// Exits with 1 if either differs.
+public final class KeyCheck {
+	private static final List<String> LEFT = List.of(
+			"Id,Phone,Name",
+			"1,+47 111 22 333,Ann",
+			"2,N/A,Bob",
+			"3,,Cid");
+	private static final List<String> RIGHT = List.of(
+			"Id,Phone,Name",
+			"1,4711122333,Anna",
+			"4,555 12 345,Dag");
+	private static final List<String> EXPECTED = List.of(
+			"[NEW]",
+			"Id,Phone,Name",
+			"4,555 12 345,Dag",
+			"",
+			"[DEPRECATED]",
+			"Id,Phone,Name",
+			"2,N/A,Bob",
+			"",
+			"[MODIFIED]",
+			"Phone,Column,Old value,New value",
+			"+47 111 22 333,Name,Ann,Anna");
+
+	private KeyCheck() {
+	}
+
+	public static void main(String[] args) throws Exception {
+		CliArgs cli = new CliArgs(args);
+		Path data = Path.of(option(cli, "data", System.getProperty("java.io.tmpdir"))).resolve("internaltool-keys");
+		Files.createDirectories(data);
+		Path left = Files.write(data.resolve("left.csv"), LEFT, StandardCharsets.UTF_8);
+		Path right = Files.write(data.resolve("right.csv"), RIGHT, StandardCharsets.UTF_8);
+
+		int failures = 0;
+		failures += check("in memory", data.resolve("in-memory.csv"), left, right);
+		failures += check("spilled", data.resolve("spilled.csv"), left, right, "--memory-limit", "0");
+		if (failures > 0) {
+			System.out.println(failures + " runs differ");
+			System.exit(1);
+		}
+	}
+
+	private static int check(String name, Path out, Path left, Path right, String... extra) throws Exception {
+		List<String> arguments = new ArrayList<>(List.of("excel-compare", "--left", left.toString(),
+				"--right", right.toString(), "--map", "Phone=Phone:phone", "--mode", "changes", "--out", out.toString()));
+		arguments.addAll(List.of(extra));
+		int exit = new CliApp().run(arguments.toArray(String[]::new));
+		if (exit != 0) {
+			System.out.println(name + ": exit " + exit);
+			return 1;
+		}
+		List<String> actual = Files.readAllLines(out, StandardCharsets.UTF_8);
+		if (!actual.equals(EXPECTED)) {
+			System.out.println(name + ": expected");
+			EXPECTED.forEach(line -> System.out.println("  " + line));
+			System.out.println("but got");
+			actual.forEach(line -> System.out.println("  " + line));
+			return 1;
+		}
+		return 0;
+	}
+
+	private static String option(CliArgs cli, String key, String fallback) {
+		String value = cli.getOptional(key);
+		return value == null ? fallback : value;
+	}
+}
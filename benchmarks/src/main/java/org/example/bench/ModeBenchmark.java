@@ -0,0 +1,59 @@
+package org.example.bench;
+
+import org.example.tool.ContentHash;
+import org.example.tool.KeyClassification;
+import org.example.tool.RunControl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+// The set logic of each mode on prebuilt key indexes: one classification pass plus the row selection the mode prints.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ModeBenchmark {
+	@Param({"union", "left-only", "right-only", "changes"})
+	public String mode;
+
+	@Benchmark
+	public void classify(ParsedTables tables, Blackhole blackhole) {
+		RunControl control = new RunControl();
+		KeyClassification classification = KeyClassification.classify(tables.leftKeys, tables.rightKeys, control);
+		switch (mode) {
+			case "union" -> {
+				blackhole.consume(classification.leftRows());
+				blackhole.consume(classification.rightOnlyRows());
+			}
+			case "left-only" -> blackhole.consume(classification.leftOnlyRows());
+			case "right-only" -> blackhole.consume(classification.rightOnlyRows());
+			case "changes" -> {
+				blackhole.consume(classification.rightOnlyRows());
+				blackhole.consume(classification.leftOnlyRows());
+				int[][] matched = classification.matchedRows();
+				long[] leftHashes = ContentHash.rows(tables.left, tables.contentColumns, control);
+				long[] rightHashes = ContentHash.rows(tables.right, tables.contentColumns, control);
+				int modified = 0;
+				for (int i = 0; i < matched[0].length; i++) {
+					if (leftHashes[matched[0][i]] != rightHashes[matched[1][i]]) {
+						modified++;
+					}
+				}
+				blackhole.consume(modified);
+			}
+			default -> throw new IllegalArgumentException("Unknown mode: " + mode);
+		}
+	}
+}
@@ -0,0 +1,82 @@
+package org.example.bench;
+
+import org.example.tool.CsvRowSink;
+import org.example.tool.XlsxRowSink;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// CSV line formatting, the CSV sink and the SXSSF export over the left sheet's rows.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OutputBenchmark {
+	private List<String> headers;
+	private List<List<String>> rows;
+	private Path export;
+
+	@Setup
+	public void prepare(ParsedTables tables) throws IOException {
+		int width = tables.width();
+		headers = tables.left.headers();
+		rows = new ArrayList<>(tables.left.rowCount());
+		for (int row = 0; row < tables.left.rowCount(); row++) {
+			rows.add(tables.left.row(row, width));
+		}
+		export = Files.createTempFile("internaltool-bench", ".xlsx");
+	}
+
+	@TearDown
+	public void cleanUp() throws IOException {
+		Files.deleteIfExists(export);
+	}
+
+	@Benchmark
+	public void toCsvLine(Blackhole blackhole) {
+		for (List<String> row : rows) {
+			blackhole.consume(CsvRowSink.toCsvLine(row));
+		}
+	}
+
+	@Benchmark
+	public void writeCsv() throws IOException {
+		CsvRowSink sink = new CsvRowSink(OutputStream.nullOutputStream());
+		sink.startSection(null, headers);
+		for (List<String> row : rows) {
+			sink.row(row);
+		}
+		sink.endSection();
+		sink.flush();
+	}
+
+	@Benchmark
+	public void writeXlsx() throws IOException {
+		try (XlsxRowSink sink = new XlsxRowSink(export)) {
+			sink.startSection("LEFT", headers);
+			for (List<String> row : rows) {
+				sink.row(row);
+			}
+			sink.endSection();
+		}
+	}
+}
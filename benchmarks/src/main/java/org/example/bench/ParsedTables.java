@@ -0,0 +1,39 @@
+package org.example.bench;
+
+import org.example.tool.KeyIndex;
+import org.example.tool.KeyNormalization;
+import org.example.tool.ParsedSheet;
+import org.example.tool.RunControl;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+// Both sides parsed once per trial, keyed on the Id column.
+@State(Scope.Benchmark)
+public class ParsedTables {
+	static final int[] KEY_COLUMNS = {0};
+	static final KeyNormalization NORMALIZATION = KeyNormalization.none(1);
+
+	ParsedSheet left;
+	ParsedSheet right;
+	KeyIndex leftKeys;
+	KeyIndex rightKeys;
+	int[] contentColumns;
+
+	@Setup
+	public void parse(TableFiles files) throws Exception {
+		RunControl control = new RunControl();
+		left = ParsedSheet.read(files.left, files.sheetName(), control);
+		right = ParsedSheet.read(files.right, files.sheetName(), control);
+		leftKeys = KeyIndex.build(left, KEY_COLUMNS, NORMALIZATION, control);
+		rightKeys = KeyIndex.build(right, KEY_COLUMNS, NORMALIZATION, control);
+		contentColumns = new int[files.columns - 1];
+		for (int i = 0; i < contentColumns.length; i++) {
+			contentColumns[i] = i + 1;
+		}
+	}
+
+	int width() {
+		return left.headers().size();
+	}
+}
@@ -0,0 +1,43 @@
+package org.example.bench;
+
+import org.example.tool.ParsedSheet;
+import org.example.tool.RunControl;
+import org.example.tool.TableSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+// readRows is the tokenizer alone (the successor of the old per-line CSV parser); readSheet adds the
+// dictionary-encoded columnar build that readSheetData used to do.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+@Fork(1)
+public class ReadBenchmark {
+	@Benchmark
+	public void readRows(TableFiles files, Blackhole blackhole) throws Exception {
+		TableSource.open(files.left, files.sheetName()).read((rowIndex, cells, width) -> {
+			for (int col = 0; col < width; col++) {
+				blackhole.consume(cells[col]);
+			}
+		});
+	}
+
+	@Benchmark
+	public ParsedSheet readSheet(TableFiles files) throws Exception {
+		return ParsedSheet.read(files.left, files.sheetName(), new RunControl());
+	}
+
+	@Benchmark
+	public String[] readHeader(TableFiles files) throws Exception {
+		return TableSource.open(files.left, files.sheetName()).readHeaderRow();
+	}
+}
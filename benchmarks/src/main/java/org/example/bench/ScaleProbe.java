@@ -0,0 +1,62 @@
+package org.example.bench;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+import org.example.CliApp;
+
+import javax.management.NotificationEmitter;
+import javax.management.openmbean.CompositeData;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Child JVM entry point for ScaleSuite: runs one CLI invocation and writes "exit millis peakHeapBytes" to a file.
+// Peak heap is the largest heap occupancy seen right after a collection, i.e. the live set rather than garbage
+// that happened to be waiting for the next young collection.
+public final class ScaleProbe {
+	private ScaleProbe() {
+	}
+
+	public static void main(String[] args) throws Exception {
+		Path report = Path.of(args[0]);
+		Set<String> heapPools = new HashSet<>();
+		for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+			if (pool.getType() == MemoryType.HEAP) {
+				heapPools.add(pool.getName());
+			}
+		}
+		AtomicLong peak = new AtomicLong();
+		for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+			((NotificationEmitter) collector).addNotificationListener((notification, handback) -> {
+				if (!notification.getType().equals(GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION)) {
+					return;
+				}
+				GarbageCollectionNotificationInfo info =
+						GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+				long used = 0;
+				for (Map.Entry<String, MemoryUsage> pool : info.getGcInfo().getMemoryUsageAfterGc().entrySet()) {
+					if (heapPools.contains(pool.getKey())) {
+						used += pool.getValue().getUsed();
+					}
+				}
+				peak.accumulateAndGet(used, Math::max);
+			}, null, null);
+		}
+
+		long start = System.nanoTime();
+		int exit = new CliApp().run(Arrays.copyOfRange(args, 1, args.length));
+		long millis = (System.nanoTime() - start) / 1_000_000;
+		peak.accumulateAndGet(ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed(), Math::max);
+		Files.writeString(report, exit + " " + millis + " " + peak.get(), StandardCharsets.UTF_8);
+		System.exit(exit);
+	}
+}
@@ -0,0 +1,200 @@
+package org.example.bench;
+
+import org.example.tool.CliArgs;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+// End-to-end scale check. Generates workbook pairs with a known overlap, runs excel-compare in every mode in a child
+// JVM with a capped heap, the serial collector and sheet snapshots off (so every run parses the same way on any
+// machine), checks each section's row count and compares wall time and peak heap with the recorded budgets. Each mode
+// runs --runs times and the fastest run counts, which keeps one noisy run from failing the tight budgets. Exits with 1
+// if any run fails, miscounts or goes over budget.
+public final class ScaleSuite {
+	private static final List<String> MODES = List.of("union", "left-only", "right-only", "changes");
+	private static final int COLUMNS = 10;
+	private static final int CARDINALITY = 1000;
+	private static final double RECORD_HEADROOM = 1.4;
+
+	private ScaleSuite() {
+	}
+
+	public static void main(String[] args) throws Exception {
+		CliArgs cli = new CliArgs(args);
+		String format = option(cli, "format", "xlsx");
+		String xmx = option(cli, "xmx", "1g");
+		Path data = Path.of(option(cli, "data", System.getProperty("java.io.tmpdir"))).resolve("internaltool-scale");
+		int runs = Integer.parseInt(option(cli, "runs", "2"));
+		String record = cli.getOptional("record");
+		Properties budgets = loadBudgets(cli.getOptional("budgets"));
+		Properties recorded = new Properties();
+
+		int failures = 0;
+		System.out.printf("%-6s %9s %-11s %9s %9s  %s%n", "format", "rows", "mode", "millis", "heap MB", "result");
+		for (String size : option(cli, "rows", "100000,500000,1000000").split(",")) {
+			int rows = Integer.parseInt(size.trim());
+			WorkbookGenerator.Pair pair = WorkbookGenerator.generate(data, format, rows, COLUMNS, CARDINALITY);
+			for (String mode : MODES) {
+				String key = format + "." + rows + "." + mode;
+				Measurement measurement = run(pair, format, mode, xmx, data);
+				for (int i = 1; i < runs && measurement.exit() == 0; i++) {
+					Measurement next = run(pair, format, mode, xmx, data);
+					measurement = next.exit() != 0 || next.millis() < measurement.millis() ? next : measurement;
+				}
+				List<String> problems = new ArrayList<>();
+				if (measurement.exit() != 0) {
+					problems.add("exit code " + measurement.exit());
+				} else if (!measurement.sections().equals(expectedSections(mode, rows))) {
+					problems.add("sections " + measurement.sections() + ", expected " + expectedSections(mode, rows));
+				}
+				checkBudget(budgets, key + ".millis", measurement.millis(), problems);
+				checkBudget(budgets, key + ".heapMb", measurement.heapMb(), problems);
+				if (!problems.isEmpty()) {
+					failures++;
+				}
+				recorded.setProperty(key + ".millis", String.valueOf((long) Math.ceil(measurement.millis() * RECORD_HEADROOM)));
+				recorded.setProperty(key + ".heapMb", String.valueOf((long) Math.ceil(measurement.heapMb() * RECORD_HEADROOM)));
+				System.out.printf("%-6s %9d %-11s %9d %9d  %s%n", format, rows, mode, measurement.millis(),
+						measurement.heapMb(), problems.isEmpty() ? "OK" : "FAILED: " + String.join("; ", problems));
+			}
+		}
+
+		if (record != null) {
+			try (OutputStream out = Files.newOutputStream(Path.of(record))) {
+				recorded.store(out, "excel-compare scale budgets (measured x " + RECORD_HEADROOM + ", -Xmx" + xmx + ")");
+			}
+			System.out.println("Recorded budgets to " + record);
+		}
+		if (failures > 0) {
+			System.out.println(failures + " scale runs failed");
+			System.exit(1);
+		}
+	}
+
+	private static Measurement run(WorkbookGenerator.Pair pair, String format, String mode, String xmx, Path data)
+			throws IOException, InterruptedException {
+		Path report = data.resolve("probe-" + mode + ".txt");
+		Path output = data.resolve("out-" + mode + ".csv");
+		List<String> command = new ArrayList<>(List.of(
+				Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+				"-Xmx" + xmx,
+				"-XX:+UseSerialGC",
+				"-Dinternaltool.snapshots=off",
+				"-cp", System.getProperty("java.class.path"),
+				ScaleProbe.class.getName(), report.toString(),
+				"excel-compare", "--left", pair.left().toString(), "--right", pair.right().toString(),
+				"--map", "Id=Id", "--mode", mode, "--out", output.toString()));
+		if (format.equals("xlsx")) {
+			command.add("--sheet");
+			command.add(WorkbookGenerator.SHEET);
+		}
+		Files.deleteIfExists(report);
+		Process process = new ProcessBuilder(command)
+				.redirectOutput(ProcessBuilder.Redirect.DISCARD)
+				.redirectError(ProcessBuilder.Redirect.INHERIT)
+				.start();
+		int exit = process.waitFor();
+		try {
+			if (!Files.exists(report)) {
+				return new Measurement(exit, 0, 0, Map.of());
+			}
+			String[] fields = Files.readString(report, StandardCharsets.UTF_8).trim().split(" ");
+			Map<String, Long> sections = exit == 0 ? countSections(output) : Map.of();
+			return new Measurement(Integer.parseInt(fields[0]), Long.parseLong(fields[1]),
+					Long.parseLong(fields[2]) >> 20, sections);
+		} finally {
+			Files.deleteIfExists(output);
+			Files.deleteIfExists(report);
+		}
+	}
+
+	// Rows per section of the CSV output; unlabelled single-section output is counted under "".
+	private static Map<String, Long> countSections(Path output) throws IOException {
+		Map<String, Long> sections = new LinkedHashMap<>();
+		try (BufferedReader reader = Files.newBufferedReader(output, StandardCharsets.UTF_8)) {
+			String label = "";
+			boolean header = true;
+			String line;
+			while ((line = reader.readLine()) != null) {
+				if (line.isEmpty()) {
+					header = true;
+					continue;
+				}
+				if (header && line.startsWith("[") && line.endsWith("]")) {
+					label = line.substring(1, line.length() - 1);
+					continue;
+				}
+				if (header) {
+					header = false;
+					sections.putIfAbsent(label, 0L);
+					continue;
+				}
+				sections.merge(label, 1L, Long::sum);
+			}
+		}
+		return sections;
+	}
+
+	// The generator shifts the right ids by a tenth of the rows and changes one cell in every twentieth shared id.
+	private static Map<String, Long> expectedSections(String mode, int rows) {
+		long shift = rows / 10;
+		long modified = (rows - 1) / 20 - (shift - 1) / 20;
+		Map<String, Long> sections = new LinkedHashMap<>();
+		switch (mode) {
+			case "union" -> {
+				sections.put("LEFT", (long) rows);
+				sections.put("RIGHT_ONLY", shift);
+			}
+			case "left-only", "right-only" -> sections.put("", shift);
+			case "changes" -> {
+				sections.put("NEW", shift);
+				sections.put("DEPRECATED", shift);
+				sections.put("MODIFIED", modified);
+			}
+			default -> throw new IllegalArgumentException("Unknown mode: " + mode);
+		}
+		return sections;
+	}
+
+	private static void checkBudget(Properties budgets, String key, long value, List<String> problems) {
+		String budget = budgets.getProperty(key);
+		if (budget != null && value > Long.parseLong(budget.trim())) {
+			problems.add(key + " " + value + " > " + budget.trim());
+		}
+	}
+
+	private static Properties loadBudgets(String path) throws IOException {
+		Properties budgets = new Properties();
+		if (path != null) {
+			try (Reader reader = Files.newBufferedReader(Path.of(path), StandardCharsets.UTF_8)) {
+				budgets.load(reader);
+			}
+			return budgets;
+		}
+		try (InputStream in = ScaleSuite.class.getResourceAsStream("/scale-budgets.properties")) {
+			if (in != null) {
+				budgets.load(in);
+			}
+		}
+		return budgets;
+	}
+
+	private static String option(CliArgs cli, String key, String fallback) {
+		String value = cli.getOptional(key);
+		return value == null ? fallback : value;
+	}
+
+	private record Measurement(int exit, long millis, long heapMb, Map<String, Long> sections) {
+	}
+}
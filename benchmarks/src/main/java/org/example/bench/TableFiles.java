@@ -0,0 +1,41 @@
+package org.example.bench;
+
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+// Generated input files, shared by every benchmark run with the same parameters.
+@State(Scope.Benchmark)
+public class TableFiles {
+	@Param({"xlsx", "csv"})
+	public String format;
+
+	@Param({"10000", "100000"})
+	public int rows;
+
+	@Param({"10"})
+	public int columns;
+
+	@Param({"100", "1000000"})
+	public int cardinality;
+
+	Path left;
+	Path right;
+
+	@Setup
+	public void generate() throws IOException {
+		Path directory = Path.of(System.getProperty("bench.data", System.getProperty("java.io.tmpdir")))
+				.resolve("internaltool-bench");
+		WorkbookGenerator.Pair pair = WorkbookGenerator.generate(directory, format, rows, columns, cardinality);
+		left = pair.left();
+		right = pair.right();
+	}
+
+	String sheetName() {
+		return format.equals("xlsx") ? WorkbookGenerator.SHEET : null;
+	}
+}
@@ -0,0 +1,122 @@
+package org.example.bench;
+
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.example.tool.CsvRowSink;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+// Writes a left/right pair of synthetic tables. Column 0 ("Id") is unique per row. The right side drops the first
+// tenth of the left ids, adds as many new ones and changes one cell in every twentieth shared row, so every mode
+// and the MODIFIED section have work to do. Other cells draw from `cardinality` distinct values per column.
+public final class WorkbookGenerator {
+	static final String SHEET = "Data";
+
+	private WorkbookGenerator() {
+	}
+
+	public static void main(String[] args) throws IOException {
+		if (args.length != 5) {
+			System.err.println("Usage: WorkbookGenerator <directory> <xlsx|csv> <rows> <columns> <cardinality>");
+			System.exit(2);
+		}
+		Pair pair = generate(Path.of(args[0]), args[1], Integer.parseInt(args[2]), Integer.parseInt(args[3]),
+				Integer.parseInt(args[4]));
+		System.out.println(pair.left());
+		System.out.println(pair.right());
+	}
+
+	// Files are reused when a pair with the same parameters already exists in the directory.
+	static Pair generate(Path directory, String format, int rows, int columns, int cardinality) throws IOException {
+		String extension = format.toLowerCase(Locale.ROOT);
+		if (!extension.equals("xlsx") && !extension.equals("csv")) {
+			throw new IllegalArgumentException("Unknown format: " + format);
+		}
+		Files.createDirectories(directory);
+		String stem = "r" + rows + "-c" + columns + "-k" + cardinality;
+		Pair pair = new Pair(directory.resolve(stem + "-left." + extension),
+				directory.resolve(stem + "-right." + extension));
+		int shift = rows / 10;
+		if (!Files.exists(pair.left())) {
+			write(pair.left(), extension, rows, columns, cardinality, 0, false);
+		}
+		if (!Files.exists(pair.right())) {
+			write(pair.right(), extension, rows, columns, cardinality, shift, true);
+		}
+		return pair;
+	}
+
+	private static void write(Path target, String extension, int rows, int columns, int cardinality, int firstId,
+			boolean modify) throws IOException {
+		Path partial = target.resolveSibling(target.getFileName() + ".tmp");
+		if (extension.equals("csv")) {
+			try (Writer writer = Files.newBufferedWriter(partial, StandardCharsets.UTF_8)) {
+				writer.write(CsvRowSink.toCsvLine(header(columns)));
+				writer.write('\n');
+				for (int i = 0; i < rows; i++) {
+					writer.write(CsvRowSink.toCsvLine(row(firstId + i, columns, cardinality, modify)));
+					writer.write('\n');
+				}
+			}
+		} else {
+			try (SXSSFWorkbook workbook = new SXSSFWorkbook(200)) {
+				Sheet sheet = workbook.createSheet(SHEET);
+				writeRow(sheet.createRow(0), header(columns));
+				for (int i = 0; i < rows; i++) {
+					writeRow(sheet.createRow(i + 1), row(firstId + i, columns, cardinality, modify));
+				}
+				try (OutputStream out = Files.newOutputStream(partial)) {
+					workbook.write(out);
+				}
+				workbook.dispose();
+			}
+		}
+		Files.move(partial, target);
+	}
+
+	private static void writeRow(Row row, List<String> values) {
+		for (int col = 0; col < values.size(); col++) {
+			row.createCell(col).setCellValue(values.get(col));
+		}
+	}
+
+	static List<String> header(int columns) {
+		List<String> header = new ArrayList<>(columns);
+		header.add("Id");
+		for (int col = 1; col < columns; col++) {
+			header.add("Field" + col);
+		}
+		return header;
+	}
+
+	private static List<String> row(int id, int columns, int cardinality, boolean modify) {
+		List<String> values = new ArrayList<>(columns);
+		values.add("ID" + id);
+		for (int col = 1; col < columns; col++) {
+			values.add("v" + col + "-" + Math.floorMod(mix(id * 31L + col), cardinality));
+		}
+		if (modify && id % 20 == 0 && columns > 1) {
+			values.set(1, "changed-" + id);
+		}
+		return values;
+	}
+
+	private static long mix(long value) {
+		value ^= value >>> 33;
+		value *= 0xFF51AFD7ED558CCDL;
+		value ^= value >>> 33;
+		return value;
+	}
+
+	record Pair(Path left, Path right) {
+	}
+}
@@ -37,7 +37,18 @@ jpackage \
   --name "$APP_NAME" \
   --app-version "$VERSION" \
   --input "$INPUT_DIR" \
-  --main-jar "$(basename "$JAR_NAME")"
+  --main-jar "$(basename "$JAR_NAME")" \
+  --jlink-options "--strip-debug --no-man-pages --no-header-files" \
+  --java-options "-XX:SharedArchiveFile=\$APPDIR/$APP_NAME.jsa"
+
+# Class-data sharing archive of the JDK classes the app loads, mapped by the launcher instead of loading them from the
+# runtime on every start. A headless warm-up run lists them and the bundled runtime's java dumps the archive; the
+# runtime keeps its bin folder only for this step. App classes are left out because their entries pin the jar's path.
+CLASS_LIST="$PWD/$DIST_DIR/classes.lst"
+JAVA_TOOL_OPTIONS="-Xshare:off -XX:DumpLoadedClassList=$CLASS_LIST" "$APP_DIR/bin/$APP_NAME" warmup
+"$APP_DIR/lib/runtime/bin/java" -Xshare:dump -Xlog:cds=off -XX:SharedClassListFile="$CLASS_LIST" \
+  -XX:SharedArchiveFile="$APP_DIR/lib/app/$APP_NAME.jsa"
+rm -rf "$APP_DIR/lib/runtime/bin" "$CLASS_LIST"
 
 tar -czf "$DIST_DIR/${APP_NAME}-${VERSION}-linux.tar.gz" -C "$DIST_DIR" "$APP_NAME"
 
@@ -5,6 +5,7 @@ APP_NAME="InternalTool"
 VERSION="${VERSION:-}"
 DIST_DIR="dist"
 INPUT_DIR="$DIST_DIR/input"
+APP_DIR="$DIST_DIR/$APP_NAME.app"
 
 if [[ -z "$VERSION" ]]; then
   VERSION=$(git describe --tags --abbrev=0 2>/dev/null | sed 's/^v//')
@@ -31,11 +32,29 @@ fi
 cp "$JAR_NAME" "$INPUT_DIR/"
 
 jpackage \
-  --type dmg \
+  --type app-image \
   --dest "$DIST_DIR" \
   --name "$APP_NAME" \
   --app-version "$VERSION" \
   --input "$INPUT_DIR" \
-  --main-jar "$(basename "$JAR_NAME")"
+  --main-jar "$(basename "$JAR_NAME")" \
+  --jlink-options "--strip-debug --no-man-pages --no-header-files" \
+  --java-options "-XX:SharedArchiveFile=\$APPDIR/$APP_NAME.jsa"
+
+# Class-data sharing archive of the JDK classes the app loads, see build-linux.sh. The bundle is signed again
+# (ad hoc) because the archive is added after jpackage built it.
+CLASS_LIST="$PWD/$DIST_DIR/classes.lst"
+JAVA_TOOL_OPTIONS="-Xshare:off -XX:DumpLoadedClassList=$CLASS_LIST" "$APP_DIR/Contents/MacOS/$APP_NAME" warmup
+"$APP_DIR/Contents/runtime/Contents/Home/bin/java" -Xshare:dump -Xlog:cds=off -XX:SharedClassListFile="$CLASS_LIST" \
+  -XX:SharedArchiveFile="$APP_DIR/Contents/app/$APP_NAME.jsa"
+rm -rf "$APP_DIR/Contents/runtime/Contents/Home/bin" "$CLASS_LIST"
+codesign --force --deep --sign - "$APP_DIR"
+
+jpackage \
+  --type dmg \
+  --dest "$DIST_DIR" \
+  --name "$APP_NAME" \
+  --app-version "$VERSION" \
+  --app-image "$APP_DIR"
 
 echo "Created $DIST_DIR/$APP_NAME-$VERSION.dmg"
@@ -0,0 +1,250 @@
+package org.example;
+
+import org.example.tool.CliArgs;
+import org.example.tool.CsvRowSink;
+import org.example.tool.ExcelCompareFeature;
+import org.example.tool.FeatureRegistry;
+import org.example.tool.RunControl;
+import org.example.tool.ToolFeature;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+final class BatchRunner {
+	private static final List<String> SUMMARY_HEADERS =
+			List.of("line", "feature", "output", "status", "exit_code", "millis", "rows", "error");
+
+	private final FeatureRegistry registry;
+	private final PrintStream out;
+	private final PrintStream err;
+
+	BatchRunner(FeatureRegistry registry, PrintStream out, PrintStream err) {
+		this.registry = registry;
+		this.out = out;
+		this.err = err;
+	}
+
+	int run(String[] args) {
+		if (args.length == 0 || args[0].startsWith("--")) {
+			err.println("Usage: cli batch <manifest> [--threads <n>] [--summary <file.csv>]");
+			return CliApp.EXIT_USAGE;
+		}
+		int threads;
+		Path summaryPath;
+		List<Job> jobs;
+		try {
+			CliArgs options = new CliArgs(Arrays.copyOfRange(args, 1, args.length));
+			threads = parseThreads(options.getOptional("threads"));
+			String summary = options.getOptional("summary");
+			summaryPath = summary == null ? null : Path.of(summary);
+			jobs = readManifest(Path.of(args[0]), threads);
+		} catch (IllegalArgumentException exception) {
+			err.println(exception.getMessage());
+			return CliApp.EXIT_USAGE;
+		} catch (IOException exception) {
+			err.println("Failed to read manifest: " + exception.getMessage());
+			return CliApp.EXIT_USAGE;
+		}
+
+		long start = System.nanoTime();
+		List<JobResult> results = new ArrayList<>();
+		AtomicInteger finished = new AtomicInteger();
+		ExecutorService executor = Executors.newFixedThreadPool(Math.min(threads, Math.max(1, jobs.size())));
+		try {
+			List<Future<JobResult>> futures = new ArrayList<>();
+			for (Job job : jobs) {
+				futures.add(executor.submit(() -> {
+					JobResult result = runJob(job);
+					err.printf("[%d/%d] %s line %d: %s in %d ms, %d rows%n", finished.incrementAndGet(), jobs.size(),
+							result.status(), job.line(), job.output(), result.millis(), result.rows());
+					return result;
+				}));
+			}
+			for (Future<JobResult> future : futures) {
+				results.add(future.get());
+			}
+		} catch (Exception exception) {
+			err.println("Batch interrupted: " + exception.getMessage());
+			return CliApp.EXIT_FAILURE;
+		} finally {
+			executor.shutdownNow();
+		}
+
+		try {
+			writeSummary(results, summaryPath);
+		} catch (IOException exception) {
+			err.println("Failed to write summary: " + exception.getMessage());
+			return CliApp.EXIT_FAILURE;
+		}
+		long failed = results.stream().filter(result -> result.error() != null).count();
+		err.printf("%d jobs, %d failed, %d ms total on %d threads%n", results.size(), failed,
+				(System.nanoTime() - start) / 1_000_000, threads);
+		return failed == 0 ? CliApp.EXIT_OK : CliApp.EXIT_FAILURE;
+	}
+
+	private JobResult runJob(Job job) {
+		long start = System.nanoTime();
+		CountingRowSink sink = null;
+		int exitCode = CliApp.EXIT_FAILURE;
+		String error = null;
+		try {
+			sink = new CountingRowSink(CliApp.openFileSink(job.output()), job.output());
+			try (CountingRowSink closing = sink) {
+				exitCode = job.feature().run(closing, new RunControl());
+			}
+		} catch (Exception exception) {
+			error = CliApp.message(exception);
+			CliApp.deletePartialOutput(job.output(), err);
+		}
+		long millis = (System.nanoTime() - start) / 1_000_000;
+		return new JobResult(job, exitCode, millis, sink == null ? 0 : sink.rows(), error);
+	}
+
+	private List<Job> readManifest(Path manifest, int threads) throws IOException {
+		List<PendingJob> pending = new ArrayList<>();
+		Map<Path, Integer> outputs = new HashMap<>();
+		List<String> lines = Files.readAllLines(manifest, StandardCharsets.UTF_8);
+		for (int i = 0; i < lines.size(); i++) {
+			String line = lines.get(i).trim();
+			if (line.isEmpty() || line.startsWith("#")) {
+				continue;
+			}
+			int lineNumber = i + 1;
+			try {
+				List<String> tokens = tokenize(line);
+				ToolFeature feature = registry.create(tokens.get(0));
+				if (feature == null) {
+					throw new IllegalArgumentException("Unknown feature: " + tokens.get(0));
+				}
+				List<String> featureArgs = new ArrayList<>(tokens.subList(1, tokens.size()));
+				Path output = CliApp.removeOutPath(featureArgs);
+				if (output == null) {
+					throw new IllegalArgumentException("Missing --out argument");
+				}
+				Integer previous = outputs.putIfAbsent(output.toAbsolutePath().normalize(), lineNumber);
+				if (previous != null) {
+					throw new IllegalArgumentException("Output " + output + " is already written by line " + previous);
+				}
+				pending.add(new PendingJob(lineNumber, feature, featureArgs, output));
+			} catch (IllegalArgumentException exception) {
+				throw new IllegalArgumentException(manifest + " line " + lineNumber + ": " + exception.getMessage());
+			}
+		}
+		if (pending.isEmpty()) {
+			throw new IllegalArgumentException("No jobs in manifest: " + manifest);
+		}
+
+		// Each compare would otherwise take a quarter of the heap as its in-memory limit, however many run at once.
+		long memoryLimitMb = Math.max(1,
+				Runtime.getRuntime().maxMemory() / 4 / Math.min(threads, pending.size()) / (1024 * 1024));
+		List<Job> jobs = new ArrayList<>();
+		for (PendingJob job : pending) {
+			List<String> featureArgs = job.args();
+			if (ExcelCompareFeature.NAME.equals(job.feature().name()) && !featureArgs.contains("--memory-limit")) {
+				featureArgs.add("--memory-limit");
+				featureArgs.add(Long.toString(memoryLimitMb));
+			}
+			try {
+				job.feature().configure(featureArgs.toArray(new String[0]));
+			} catch (IllegalArgumentException exception) {
+				throw new IllegalArgumentException(manifest + " line " + job.line() + ": " + exception.getMessage());
+			}
+			jobs.add(new Job(job.line(), job.feature(), job.output()));
+		}
+		return jobs;
+	}
+
+	private void writeSummary(List<JobResult> results, Path summaryPath) throws IOException {
+		CsvRowSink sink = summaryPath == null ? new CsvRowSink(out) : CsvRowSink.toFile(summaryPath);
+		try {
+			sink.startSection(null, SUMMARY_HEADERS);
+			for (JobResult result : results) {
+				sink.row(List.of(
+						String.valueOf(result.job().line()),
+						result.job().feature().name(),
+						result.job().output().toString(),
+						result.status(),
+						String.valueOf(result.exitCode()),
+						String.valueOf(result.millis()),
+						String.valueOf(result.rows()),
+						result.error() == null ? "" : result.error()
+				));
+			}
+		} finally {
+			if (summaryPath == null) {
+				sink.flush();
+			} else {
+				sink.close();
+			}
+		}
+	}
+
+	private static int parseThreads(String value) {
+		if (value == null) {
+			return Runtime.getRuntime().availableProcessors();
+		}
+		try {
+			int threads = Integer.parseInt(value);
+			if (threads > 0) {
+				return threads;
+			}
+		} catch (NumberFormatException ignored) {
+			// reported below
+		}
+		throw new IllegalArgumentException("Invalid --threads value: " + value);
+	}
+
+	static List<String> tokenize(String line) {
+		List<String> tokens = new ArrayList<>();
+		StringBuilder token = new StringBuilder();
+		boolean quoted = false;
+		boolean inToken = false;
+		for (int i = 0; i < line.length(); i++) {
+			char ch = line.charAt(i);
+			if (ch == '"') {
+				quoted = !quoted;
+				inToken = true;
+			} else if (!quoted && Character.isWhitespace(ch)) {
+				if (inToken) {
+					tokens.add(token.toString());
+					token.setLength(0);
+					inToken = false;
+				}
+			} else {
+				token.append(ch);
+				inToken = true;
+			}
+		}
+		if (quoted) {
+			throw new IllegalArgumentException("Unterminated quote");
+		}
+		if (inToken) {
+			tokens.add(token.toString());
+		}
+		return tokens;
+	}
+
+	private record PendingJob(int line, ToolFeature feature, List<String> args, Path output) {
+	}
+
+	private record Job(int line, ToolFeature feature, Path output) {
+	}
+
+	private record JobResult(Job job, int exitCode, long millis, long rows, String error) {
+		String status() {
+			return error == null ? "OK" : "FAILED";
+		}
+	}
+}
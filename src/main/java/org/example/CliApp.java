@@ -0,0 +1,146 @@
+package org.example;
+
+import org.example.tool.CsvRowSink;
+import org.example.tool.ExcelCompareFeature;
+import org.example.tool.FeatureRegistry;
+import org.example.tool.RowSink;
+import org.example.tool.RunControl;
+import org.example.tool.ToolFeature;
+import org.example.tool.XlsxRowSink;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+public class CliApp implements App {
+	static final int EXIT_OK = 0;
+	static final int EXIT_FAILURE = 1;
+	static final int EXIT_USAGE = 2;
+
+	private final FeatureRegistry registry = new FeatureRegistry();
+	private final PrintStream out;
+	private final PrintStream err;
+
+	public CliApp() {
+		this(System.out, System.err);
+	}
+
+	CliApp(PrintStream out, PrintStream err) {
+		this.out = out;
+		this.err = err;
+	}
+
+	@Override
+	public int run(String[] args) {
+		System.setProperty("java.awt.headless", "true");
+		registry.register(ExcelCompareFeature.NAME, () -> new ExcelCompareFeature());
+
+		if (args.length == 0) {
+			printUsage(err);
+			return EXIT_USAGE;
+		}
+		if ("help".equals(args[0]) || "--help".equals(args[0]) || "-h".equals(args[0])) {
+			printUsage(out);
+			return EXIT_OK;
+		}
+		if ("batch".equals(args[0])) {
+			return new BatchRunner(registry, out, err).run(Arrays.copyOfRange(args, 1, args.length));
+		}
+		ToolFeature feature = registry.create(args[0]);
+		if (feature == null) {
+			err.println("Unknown feature: " + args[0]);
+			printUsage(err);
+			return EXIT_USAGE;
+		}
+
+		List<String> featureArgs = new ArrayList<>(Arrays.asList(args).subList(1, args.length));
+		Path outPath;
+		try {
+			outPath = removeOutPath(featureArgs);
+		} catch (IllegalArgumentException exception) {
+			err.println(exception.getMessage());
+			return EXIT_USAGE;
+		}
+
+		try {
+			feature.configure(featureArgs.toArray(new String[0]));
+		} catch (IllegalArgumentException exception) {
+			err.println(exception.getMessage());
+			err.println("Usage: " + feature.usage() + " [--out <file.csv|file.xlsx>]");
+			return EXIT_USAGE;
+		}
+
+		// Arguments were checked by configure, so anything thrown from here on is a failed run.
+		try {
+			return runFeature(feature, outPath);
+		} catch (Exception exception) {
+			err.println("Failed: " + message(exception));
+			if (outPath != null) {
+				deletePartialOutput(outPath, err);
+			}
+			return EXIT_FAILURE;
+		}
+	}
+
+	private int runFeature(ToolFeature feature, Path outPath) throws Exception {
+		if (outPath == null) {
+			CsvRowSink sink = new CsvRowSink(out);
+			try {
+				return feature.run(sink, new RunControl());
+			} finally {
+				sink.flush();
+			}
+		}
+		try (CountingRowSink sink = new CountingRowSink(openFileSink(outPath), outPath)) {
+			return feature.run(sink, new RunControl());
+		}
+	}
+
+	static Path removeOutPath(List<String> args) {
+		int index = args.indexOf("--out");
+		if (index < 0) {
+			return null;
+		}
+		if (index + 1 >= args.size() || args.get(index + 1).startsWith("--")) {
+			throw new IllegalArgumentException("Missing --out argument");
+		}
+		Path outPath = Path.of(args.get(index + 1));
+		args.subList(index, index + 2).clear();
+		return outPath;
+	}
+
+	static String message(Exception exception) {
+		return exception.getMessage() == null ? exception.getClass().getSimpleName() : exception.getMessage();
+	}
+
+	static void deletePartialOutput(Path output, PrintStream err) {
+		try {
+			Files.deleteIfExists(output);
+		} catch (IOException exception) {
+			err.println("Failed to remove partial output " + output + ": " + exception.getMessage());
+		}
+	}
+
+	static RowSink openFileSink(Path outPath) throws IOException {
+		if (outPath.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".xlsx")) {
+			return new XlsxRowSink(outPath);
+		}
+		return CsvRowSink.toFile(outPath);
+	}
+
+	private void printUsage(PrintStream stream) {
+		stream.println("Usage: cli <feature> [feature arguments] [--out <file.csv|file.xlsx>]");
+		stream.println("       cli batch <manifest> [--threads <n>] [--summary <file.csv>]");
+		stream.println();
+		stream.println("Features:");
+		for (ToolFeature feature : registry.list()) {
+			stream.println("  " + feature.name() + " - " + feature.description());
+			stream.println("    " + feature.usage());
+		}
+	}
+}
@@ -0,0 +1,66 @@
+package org.example;
+
+import org.example.tool.CompareEvents;
+import org.example.tool.RowSink;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+// Counts rows on their way to a file sink; closing it records an Export event for the file, timed from the first
+// section so the compare itself is not included.
+class CountingRowSink implements RowSink, Closeable {
+	private final RowSink delegate;
+	private final Path target;
+	private final CompareEvents.Export event = new CompareEvents.Export();
+	private long rows;
+	private boolean started;
+
+	CountingRowSink(RowSink delegate, Path target) {
+		this.delegate = delegate;
+		this.target = target;
+	}
+
+	@Override
+	public void startSection(String label, List<String> headers) throws IOException {
+		begin();
+		delegate.startSection(label, headers);
+	}
+
+	@Override
+	public void row(List<String> values) throws IOException {
+		rows++;
+		delegate.row(values);
+	}
+
+	@Override
+	public void endSection() throws IOException {
+		delegate.endSection();
+	}
+
+	long rows() {
+		return rows;
+	}
+
+	private void begin() {
+		if (!started) {
+			started = true;
+			CompareEvents.register();
+			event.begin();
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		begin();
+		if (delegate instanceof Closeable closeable) {
+			closeable.close();
+		}
+		if (event.shouldCommit()) {
+			event.identify(target);
+			event.rows = rows;
+			event.commit();
+		}
+	}
+}
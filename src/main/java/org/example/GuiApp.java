@@ -4,7 +4,10 @@ import org.example.tool.ExcelCompareFeature;
 import org.example.tool.ExcelHeaderReader;
 import org.example.tool.FeatureArgument;
 import org.example.tool.FeatureRegistry;
+import org.example.tool.KeyNormalizer;
+import org.example.tool.RunControl;
 import org.example.tool.ToolFeature;
+import org.example.tool.XlsxRowSink;
 
 import javax.swing.BorderFactory;
 import javax.swing.JButton;
@@ -15,17 +18,20 @@ import javax.swing.JFrame;
 import javax.swing.JLabel;
 import javax.swing.JOptionPane;
 import javax.swing.JPanel;
+import javax.swing.JProgressBar;
 import javax.swing.JScrollPane;
 import javax.swing.JList;
 import javax.swing.DefaultListModel;
 import javax.swing.ListSelectionModel;
-import javax.swing.JTextArea;
+import javax.swing.JTabbedPane;
+import javax.swing.JTable;
 import javax.swing.JTextField;
 import javax.swing.SwingUtilities;
 import javax.swing.SwingWorker;
 import javax.swing.UIManager;
 import javax.swing.Timer;
 import javax.swing.filechooser.FileNameExtensionFilter;
+import javax.swing.table.TableRowSorter;
 import java.awt.BorderLayout;
 import java.awt.Dimension;
 import java.awt.Font;
@@ -33,38 +39,46 @@ import java.awt.GridBagConstraints;
 import java.awt.GridBagLayout;
 import java.awt.Insets;
 import java.awt.Toolkit;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.io.PrintStream;
-import java.io.FileOutputStream;
 import java.nio.file.Path;
 import java.util.Enumeration;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Locale;
-
-import org.apache.poi.ss.usermodel.Row;
-import org.apache.poi.ss.usermodel.Sheet;
-import org.apache.poi.ss.usermodel.Workbook;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 public class GuiApp implements App {
 	private final FeatureRegistry registry = new FeatureRegistry();
 	private final Map<String, Object> inputComponents = new HashMap<>();
-	private JTextArea outputArea;
+	private final ExcelHeaderReader headerReader = new ExcelHeaderReader();
+	private JLabel statusLabel;
+	private JTabbedPane resultTabs;
 	private JPanel argsPanel;
 	private JLabel featureDescription;
 	private JComboBox<String> featureSelector;
+	private JButton exportButton;
 	private Timer runTimer;
-	private SwingWorker<Integer, Void> activeWorker;
+	private RunControl activeControl;
+	private JProgressBar progressBar;
+	private JButton cancelButton;
+	private Timer progressTimer;
 	private boolean pendingRun;
+	private ResultModel result;
+
+	public GuiApp() {
+		// A lambda rather than ExcelCompareFeature::new: linking a constructor reference already loads the class.
+		registry.register(ExcelCompareFeature.NAME, () -> new ExcelCompareFeature());
+	}
 
 	@Override
 	public int run(String[] args) {
-		registry.register(new ExcelCompareFeature());
-
 		SwingUtilities.invokeLater(this::buildAndShow);
 		return 0;
 	}
@@ -74,17 +88,33 @@ public class GuiApp implements App {
 
 		JFrame frame = new JFrame("Internal Tool");
 		frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
-		frame.setLayout(new BorderLayout(12, 12));
+		frame.setContentPane(buildContent());
+
+		frame.pack();
+		Dimension screen = Toolkit.getDefaultToolkit().getScreenSize();
+		int targetWidth = Math.max(900, (int) (screen.width * 0.6));
+		int targetHeight = Math.max(650, (int) (screen.height * 0.6));
+		frame.setSize(new Dimension(targetWidth, targetHeight));
+		frame.setMinimumSize(new Dimension(700, 500));
+		frame.setLocationRelativeTo(null);
+		frame.setVisible(true);
+	}
+
+	// Everything inside the window; WarmupApp builds it without a display.
+	JPanel buildContent() {
+		JPanel content = new JPanel(new BorderLayout(12, 12));
 
 		JPanel topPanel = new JPanel(new BorderLayout(8, 8));
-		featureSelector = new JComboBox<>(registry.list().stream().map(ToolFeature::name).toArray(String[]::new));
+		featureSelector = new JComboBox<>(registry.names().toArray(String[]::new));
+		// Nothing is selected at first, so no feature is created until the user picks one.
+		featureSelector.setSelectedIndex(-1);
 		featureSelector.addActionListener(event -> rebuildArgsPanel());
 		topPanel.add(new JLabel("Feature"), BorderLayout.WEST);
 		topPanel.add(featureSelector, BorderLayout.CENTER);
 		JButton helpButton = new JButton("?");
 		helpButton.setToolTipText("Show feature help");
 		helpButton.setMargin(new Insets(2, 8, 2, 8));
-		helpButton.addActionListener(event -> showHelp(frame));
+		helpButton.addActionListener(event -> showHelp());
 		topPanel.add(helpButton, BorderLayout.EAST);
 		featureDescription = new JLabel();
 		topPanel.add(featureDescription, BorderLayout.SOUTH);
@@ -96,34 +126,47 @@ public class GuiApp implements App {
 		JPanel centerPanel = new JPanel(new BorderLayout(8, 8));
 		centerPanel.add(argsPanel, BorderLayout.NORTH);
 
-		outputArea = new JTextArea(10, 60);
-		outputArea.setEditable(false);
-		JScrollPane outputScroll = new JScrollPane(outputArea);
-		outputScroll.setBorder(BorderFactory.createTitledBorder("Output"));
-		centerPanel.add(outputScroll, BorderLayout.CENTER);
+		JPanel outputPanel = new JPanel(new BorderLayout(6, 6));
+		statusLabel = new JLabel(" ");
+		resultTabs = new JTabbedPane();
+		resultTabs.addChangeListener(event -> updateRowCount());
+		outputPanel.add(statusLabel, BorderLayout.NORTH);
+		outputPanel.add(resultTabs, BorderLayout.CENTER);
+		outputPanel.setBorder(BorderFactory.createTitledBorder("Output"));
+		centerPanel.add(outputPanel, BorderLayout.CENTER);
 		centerPanel.setBorder(BorderFactory.createEmptyBorder(0, 12, 0, 12));
 
 		JPanel bottomPanel = new JPanel(new BorderLayout(8, 8));
-		JButton exportButton = new JButton("Export Output");
+		exportButton = new JButton("Export Output");
 		exportButton.addActionListener(event -> exportOutput());
 		bottomPanel.add(exportButton, BorderLayout.WEST);
+		JPanel progressPanel = new JPanel(new BorderLayout(6, 0));
+		progressBar = new JProgressBar();
+		progressBar.setIndeterminate(true);
+		progressBar.setStringPainted(true);
+		cancelButton = new JButton("Cancel");
+		cancelButton.addActionListener(event -> {
+			cancelActiveRun();
+			statusLabel.setText("Run cancelled.");
+		});
+		progressPanel.add(progressBar, BorderLayout.CENTER);
+		progressPanel.add(cancelButton, BorderLayout.EAST);
+		bottomPanel.add(progressPanel, BorderLayout.CENTER);
+		progressTimer = new Timer(150, event -> updateProgress());
+		showProgress(false);
 		bottomPanel.setBorder(BorderFactory.createEmptyBorder(0, 12, 12, 12));
 
-		frame.add(topPanel, BorderLayout.NORTH);
-		frame.add(centerPanel, BorderLayout.CENTER);
-		frame.add(bottomPanel, BorderLayout.SOUTH);
+		content.add(topPanel, BorderLayout.NORTH);
+		content.add(centerPanel, BorderLayout.CENTER);
+		content.add(bottomPanel, BorderLayout.SOUTH);
 
 		rebuildArgsPanel();
-		scheduleRun();
+		return content;
+	}
 
-		frame.pack();
-		Dimension screen = Toolkit.getDefaultToolkit().getScreenSize();
-		int targetWidth = Math.max(900, (int) (screen.width * 0.6));
-		int targetHeight = Math.max(650, (int) (screen.height * 0.6));
-		frame.setSize(new Dimension(targetWidth, targetHeight));
-		frame.setMinimumSize(new Dimension(700, 500));
-		frame.setLocationRelativeTo(null);
-		frame.setVisible(true);
+	// WarmupApp picks the feature the way a user would, so its argument panel is part of the warm-up.
+	void selectFeature(String name) {
+		featureSelector.setSelectedItem(name);
 	}
 
 	private void applyScaling() {
@@ -146,6 +189,12 @@ public class GuiApp implements App {
 		inputComponents.clear();
 
 		ToolFeature feature = getSelectedFeature();
+		if (feature == null) {
+			featureDescription.setText("Pick a feature to see its arguments.");
+			argsPanel.revalidate();
+			argsPanel.repaint();
+			return;
+		}
 		featureDescription.setText(feature.description());
 
 		GridBagConstraints constraints = new GridBagConstraints();
@@ -221,10 +270,10 @@ public class GuiApp implements App {
 		}
 	}
 
-	private void showHelp(JFrame frame) {
+	private void showHelp() {
 		ToolFeature feature = getSelectedFeature();
-		String text = buildHelpText(feature);
-		JOptionPane.showMessageDialog(frame, text, "Feature Help", JOptionPane.INFORMATION_MESSAGE);
+		String text = feature == null ? "Pick a feature first." : buildHelpText(feature);
+		JOptionPane.showMessageDialog(argsPanel, text, "Feature Help", JOptionPane.INFORMATION_MESSAGE);
 	}
 
 	private String buildHelpText(ToolFeature feature) {
@@ -262,15 +311,16 @@ public class GuiApp implements App {
 		if (!pendingRun) {
 			return;
 		}
-		if (activeWorker != null) {
-			return;
-		}
 		pendingRun = false;
+		cancelActiveRun();
 		runSelectedFeature();
 	}
 
 	private void runSelectedFeature() {
 		ToolFeature feature = getSelectedFeature();
+		if (feature == null) {
+			return;
+		}
 		List<String> args = new ArrayList<>();
 
 		for (FeatureArgument argument : feature.arguments()) {
@@ -288,19 +338,19 @@ public class GuiApp implements App {
 				MappingPanel mappingPanel = (MappingPanel) component;
 				List<HeaderPair> pairs = mappingPanel.getMappings();
 				if (argument.required() && pairs.isEmpty()) {
-					outputArea.setText("Waiting for required inputs.");
+					clearResult("Waiting for required inputs.");
 					return;
 				}
 				for (HeaderPair pair : pairs) {
 					args.add("--" + argument.key());
-					args.add(pair.left + "=" + pair.right);
+					args.add(pair.left + "=" + pair.right + (pair.normalizer == null ? "" : ":" + pair.normalizer));
 				}
 				continue;
 			}
 
 			String value = readComponentValue(component);
 			if (argument.required() && (value == null || value.isBlank())) {
-				outputArea.setText("Waiting for required inputs.");
+				clearResult("Waiting for required inputs.");
 				return;
 			}
 
@@ -310,48 +360,118 @@ public class GuiApp implements App {
 			}
 		}
 
-		outputArea.setText("Running...");
-		activeWorker = new SwingWorker<>() {
-			private String output;
+		ToolFeature runFeature = registry.create(feature.name());
+		RunControl control = new RunControl();
+		activeControl = control;
+		statusLabel.setText("Running...");
+		showProgress(true);
+		new SwingWorker<Integer, Void>() {
+			private final ResultModel model = new ResultModel();
+			private String error;
 
 			@Override
 			protected Integer doInBackground() {
-				PrintStream originalOut = System.out;
-				PrintStream originalErr = System.err;
-				ByteArrayOutputStream buffer = new ByteArrayOutputStream();
-				PrintStream capture = new PrintStream(buffer);
-				System.setOut(capture);
-				System.setErr(capture);
 				try {
-					feature.configure(args.toArray(new String[0]));
-					int code = feature.run();
-					output = buffer.toString();
-					return code;
+					runFeature.configure(args.toArray(new String[0]));
+					return runFeature.run(model, control);
+				} catch (CancellationException exception) {
+					return 1;
 				} catch (Exception exception) {
-					output = exception.getMessage();
+					error = describe(exception);
 					return 1;
-				} finally {
-					System.setOut(originalOut);
-					System.setErr(originalErr);
 				}
 			}
 
 			@Override
 			protected void done() {
-				outputArea.setText(output == null ? "" : output);
-				activeWorker = null;
-				if (pendingRun) {
-					startRun();
+				if (activeControl != control) {
+					return;
 				}
+				activeControl = null;
+				showProgress(false);
+				if (error != null) {
+					clearResult(error);
+				} else {
+					showResult(model);
+				}
+			}
+		}.execute();
+	}
+
+	private void cancelActiveRun() {
+		if (activeControl != null) {
+			activeControl.cancel();
+			activeControl = null;
+		}
+		showProgress(false);
+	}
+
+	private void showProgress(boolean running) {
+		progressBar.setVisible(running);
+		cancelButton.setVisible(running);
+		progressBar.setString("Starting...");
+		if (running) {
+			progressTimer.start();
+		} else {
+			progressTimer.stop();
+		}
+	}
+
+	private void updateProgress() {
+		RunControl control = activeControl;
+		if (control == null) {
+			return;
+		}
+		String phase = control.phase().isEmpty() ? "Starting" : control.phase();
+		long rows = control.rows();
+		progressBar.setString(rows > 0 ? String.format("%s: %,d rows", phase, rows) : phase + "...");
+	}
+
+	void showResult(ResultModel model) {
+		result = model;
+		resultTabs.removeAll();
+		for (ResultModel.Section section : model.sections()) {
+			SectionTableModel tableModel = new SectionTableModel(section);
+			JTable table = new JTable(tableModel);
+			table.setFillsViewportHeight(true);
+			if (tableModel.getColumnCount() > 8) {
+				table.setAutoResizeMode(JTable.AUTO_RESIZE_OFF);
 			}
-		};
-		activeWorker.execute();
+			TableRowSorter<SectionTableModel> sorter = new TableRowSorter<>(tableModel);
+			for (int col = 0; col < tableModel.getColumnCount(); col++) {
+				sorter.setComparator(col, Comparator.<String>naturalOrder());
+			}
+			table.setRowSorter(sorter);
+			String title = section.label() == null ? "Result" : section.label();
+			resultTabs.addTab(title + " (" + section.rowCount() + ")", new JScrollPane(table));
+		}
+		if (model.sections().isEmpty()) {
+			statusLabel.setText("No output.");
+		}
+		updateRowCount();
+	}
+
+	private void clearResult(String status) {
+		result = null;
+		resultTabs.removeAll();
+		statusLabel.setText(status);
+	}
+
+	private void updateRowCount() {
+		ResultModel model = result;
+		int index = resultTabs.getSelectedIndex();
+		if (model == null || index < 0 || index >= model.sections().size()) {
+			return;
+		}
+		ResultModel.Section section = model.sections().get(index);
+		String title = section.label() == null ? "Result" : section.label();
+		statusLabel.setText(title + ": " + section.rowCount() + " rows");
 	}
 
 	private void exportOutput() {
-		String output = outputArea.getText();
-		if (output == null || output.isBlank()) {
-			outputArea.setText("Nothing to export yet.");
+		ResultModel output = result;
+		if (output == null || output.isEmpty()) {
+			statusLabel.setText("Nothing to export yet.");
 			return;
 		}
 		JFileChooser chooser = new JFileChooser();
@@ -364,11 +484,24 @@ public class GuiApp implements App {
 			return;
 		}
 		Path target = ensureExtension(chooser.getSelectedFile().toPath(), "xlsx");
-		try {
-			writeXlsx(target, output);
-		} catch (IOException exception) {
-			outputArea.setText("Failed to export: " + exception.getMessage());
-		}
+		exportButton.setEnabled(false);
+		new SwingWorker<Void, Void>() {
+			@Override
+			protected Void doInBackground() throws IOException {
+				writeXlsx(target, output);
+				return null;
+			}
+
+			@Override
+			protected void done() {
+				exportButton.setEnabled(true);
+				try {
+					get();
+				} catch (Exception exception) {
+					statusLabel.setText("Failed to export: " + describe(exception));
+				}
+			}
+		}.execute();
 	}
 
 	private Path ensureExtension(Path path, String extension) {
@@ -380,69 +513,16 @@ public class GuiApp implements App {
 		return path.resolveSibling(filename + "." + extension);
 	}
 
-	private void writeXlsx(Path target, String output) throws IOException {
-		try (Workbook workbook = new XSSFWorkbook()) {
-			Sheet sheet = workbook.createSheet("Output");
-			String[] lines = output.split("\\R", -1);
-			for (int i = 0; i < lines.length; i++) {
-				List<String> cells = parseCsvLine(lines[i]);
-				Row row = sheet.createRow(i);
-				for (int col = 0; col < cells.size(); col++) {
-					row.createCell(col).setCellValue(cells.get(col));
-				}
-			}
-			autoSizeColumns(sheet);
-			try (FileOutputStream out = new FileOutputStream(target.toFile())) {
-				workbook.write(out);
-			}
-		}
-	}
-
-	private List<String> parseCsvLine(String line) {
-		List<String> cells = new ArrayList<>();
-		StringBuilder current = new StringBuilder();
-		boolean inQuotes = false;
-		for (int i = 0; i < line.length(); i++) {
-			char ch = line.charAt(i);
-			if (ch == '"') {
-				if (inQuotes && i + 1 < line.length() && line.charAt(i + 1) == '"') {
-					current.append('"');
-					i++;
-				} else {
-					inQuotes = !inQuotes;
-				}
-				continue;
-			}
-			if (ch == ',' && !inQuotes) {
-				cells.add(current.toString());
-				current.setLength(0);
-				continue;
-			}
-			current.append(ch);
-		}
-		cells.add(current.toString());
-		return cells;
-	}
-
-	private void autoSizeColumns(Sheet sheet) {
-		int maxColumns = 0;
-		for (Row row : sheet) {
-			if (row.getLastCellNum() > maxColumns) {
-				maxColumns = row.getLastCellNum();
-			}
-		}
-		for (int col = 0; col < maxColumns; col++) {
-			sheet.autoSizeColumn(col);
+	static void writeXlsx(Path target, ResultModel output) throws IOException {
+		try (CountingRowSink sink = new CountingRowSink(new XlsxRowSink(target), target)) {
+			output.writeTo(sink);
 		}
 	}
 
+	// Null until the user has picked a feature.
 	private ToolFeature getSelectedFeature() {
 		String selected = (String) featureSelector.getSelectedItem();
-		ToolFeature feature = registry.get(selected);
-		if (feature == null) {
-			return registry.list().get(0);
-		}
-		return feature;
+		return selected == null ? null : registry.get(selected);
 	}
 
 	private String labelFor(FeatureArgument argument) {
@@ -469,8 +549,10 @@ public class GuiApp implements App {
 	private class MappingPanel extends JPanel {
 		private final JComboBox<String> leftCombo = new JComboBox<>();
 		private final JComboBox<String> rightCombo = new JComboBox<>();
+		private final JComboBox<String> normalizerCombo = new JComboBox<>();
 		private final DefaultListModel<HeaderPair> mappingModel = new DefaultListModel<>();
 		private final JList<HeaderPair> mappingList = new JList<>(mappingModel);
+		private final JButton scanButton = new JButton("Scan Headers");
 
 		private MappingPanel() {
 			super(new BorderLayout(6, 6));
@@ -480,10 +562,9 @@ public class GuiApp implements App {
 			constraints.gridy = 0;
 			constraints.fill = GridBagConstraints.HORIZONTAL;
 
-			JButton scanButton = new JButton("Scan Headers");
 			scanButton.addActionListener(event -> scanHeaders());
 			constraints.gridx = 0;
-			constraints.gridwidth = 3;
+			constraints.gridwidth = 4;
 			controls.add(scanButton, constraints);
 
 			constraints.gridy++;
@@ -492,6 +573,8 @@ public class GuiApp implements App {
 			controls.add(new JLabel("Left"), constraints);
 			constraints.gridx = 1;
 			controls.add(new JLabel("Right"), constraints);
+			constraints.gridx = 2;
+			controls.add(new JLabel("Match"), constraints);
 
 			constraints.gridy++;
 			constraints.gridx = 0;
@@ -501,6 +584,13 @@ public class GuiApp implements App {
 			controls.add(rightCombo, constraints);
 			constraints.gridx = 2;
 			constraints.weightx = 0;
+			normalizerCombo.addItem("exact");
+			for (KeyNormalizer normalizer : KeyNormalizer.values()) {
+				normalizerCombo.addItem(normalizer.label());
+			}
+			normalizerCombo.setToolTipText("How key values are normalized before they are compared");
+			controls.add(normalizerCombo, constraints);
+			constraints.gridx = 3;
 			JButton addButton = new JButton("Add");
 			addButton.addActionListener(event -> addMapping());
 			controls.add(addButton, constraints);
@@ -529,21 +619,36 @@ public class GuiApp implements App {
 			String rightPath = textValue("right");
 			String sheet = textValue("sheet");
 			if (leftPath == null || leftPath.isBlank() || rightPath == null || rightPath.isBlank()) {
-				outputArea.setText("Provide both left and right file paths before scanning.");
+				statusLabel.setText("Provide both left and right file paths before scanning.");
 				return;
 			}
 
-			try {
-				ExcelHeaderReader reader = new ExcelHeaderReader();
-				List<String> leftHeaders = reader.readHeaders(Path.of(leftPath), sheet);
-				List<String> rightHeaders = reader.readHeaders(Path.of(rightPath), sheet);
-				refreshCombo(leftCombo, leftHeaders);
-				refreshCombo(rightCombo, rightHeaders);
-				outputArea.setText("Headers loaded. Select fields and click Add.");
-				scheduleRun();
-			} catch (Exception exception) {
-				outputArea.setText("Failed to scan headers: " + exception.getMessage());
-			}
+			scanButton.setEnabled(false);
+			statusLabel.setText("Scanning headers...");
+			new SwingWorker<List<List<String>>, Void>() {
+				@Override
+				protected List<List<String>> doInBackground() throws Exception {
+					try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+						Future<List<String>> left = executor.submit(() -> headerReader.readHeaders(Path.of(leftPath), sheet));
+						Future<List<String>> right = executor.submit(() -> headerReader.readHeaders(Path.of(rightPath), sheet));
+						return List.of(left.get(), right.get());
+					}
+				}
+
+				@Override
+				protected void done() {
+					scanButton.setEnabled(true);
+					try {
+						List<List<String>> headers = get();
+						refreshCombo(leftCombo, headers.get(0));
+						refreshCombo(rightCombo, headers.get(1));
+						statusLabel.setText("Headers loaded. Select fields and click Add.");
+						scheduleRun();
+					} catch (Exception exception) {
+						statusLabel.setText("Failed to scan headers: " + describe(exception));
+					}
+				}
+			}.execute();
 		}
 
 		private void refreshCombo(JComboBox<String> combo, List<String> values) {
@@ -560,10 +665,12 @@ public class GuiApp implements App {
 			Object left = leftCombo.getSelectedItem();
 			Object right = rightCombo.getSelectedItem();
 			if (left == null || right == null) {
-				outputArea.setText("Select both left and right headers.");
+				statusLabel.setText("Select both left and right headers.");
 				return;
 			}
-			HeaderPair pair = new HeaderPair(left.toString(), right.toString());
+			Object normalizer = normalizerCombo.getSelectedItem();
+			HeaderPair pair = new HeaderPair(left.toString(), right.toString(),
+					normalizer == null || "exact".equals(normalizer) ? null : normalizer.toString());
 			mappingModel.addElement(pair);
 			scheduleRun();
 		}
@@ -613,6 +720,21 @@ public class GuiApp implements App {
 		}
 	}
 
+	private static Throwable rootCause(Throwable throwable) {
+		Throwable cause = throwable;
+		while (cause instanceof ExecutionException && cause.getCause() != null) {
+			cause = cause.getCause();
+		}
+		return cause;
+	}
+
+	// Some exceptions (NullPointerException, many IOExceptions) carry no message; the status then names the type.
+	private static String describe(Throwable throwable) {
+		Throwable cause = rootCause(throwable);
+		String message = cause.getMessage();
+		return message == null || message.isBlank() ? cause.getClass().getSimpleName() : message;
+	}
+
 	private String textValue(String key) {
 		Object component = inputComponents.get(key);
 		if (component instanceof JTextField field) {
@@ -624,15 +746,17 @@ public class GuiApp implements App {
 	private static class HeaderPair {
 		private final String left;
 		private final String right;
+		private final String normalizer;
 
-		private HeaderPair(String left, String right) {
+		private HeaderPair(String left, String right, String normalizer) {
 			this.left = left;
 			this.right = right;
+			this.normalizer = normalizer;
 		}
 
 		@Override
 		public String toString() {
-			return left + " -> " + right;
+			return left + " -> " + right + (normalizer == null ? "" : " (" + normalizer + ")");
 		}
 	}
 }
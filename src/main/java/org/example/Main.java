@@ -4,6 +4,13 @@ import java.util.Arrays;
 
 public class Main {
 	public static void main(String[] args) {
+		if (args.length > 0 && ("cli".equalsIgnoreCase(args[0]) || "--cli".equalsIgnoreCase(args[0]))) {
+			App app = new CliApp();
+			System.exit(app.run(stripModeArg(args)));
+		}
+		if (args.length > 0 && "warmup".equals(args[0])) {
+			System.exit(new WarmupApp().run(Arrays.copyOfRange(args, 1, args.length)));
+		}
 		App app = new GuiApp();
 		app.run(stripModeArg(args));
 	}
@@ -0,0 +1,106 @@
+package org.example;
+
+import org.example.tool.RowSink;
+import org.example.tool.SectionRows;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class ResultModel implements RowSink {
+	private final List<Section> sections = new ArrayList<>();
+	private Section current;
+
+	@Override
+	public void startSection(String label, List<String> headers) {
+		current = new Section(label, List.copyOf(headers));
+		sections.add(current);
+	}
+
+	@Override
+	public void row(List<String> values) {
+		current.add(values.toArray(new String[0]));
+	}
+
+	// Sections taken as a view keep the compare's parsed sheet instead of a copy of every row.
+	@Override
+	public boolean rows(SectionRows rows) {
+		if (current == null || current.rowCount() > 0) {
+			return false;
+		}
+		current.view = rows;
+		return true;
+	}
+
+	public List<Section> sections() {
+		return sections;
+	}
+
+	public boolean isEmpty() {
+		return sections.isEmpty();
+	}
+
+	public void writeTo(RowSink sink) throws IOException {
+		for (Section section : sections) {
+			sink.startSection(section.label(), section.headers());
+			for (int row = 0; row < section.rowCount(); row++) {
+				sink.row(section.row(row));
+			}
+			sink.endSection();
+		}
+	}
+
+	public static final class Section {
+		private final String label;
+		private final List<String> headers;
+		private final List<String[]> copied = new ArrayList<>();
+		private SectionRows view;
+
+		Section(String label, List<String> headers) {
+			this.label = label;
+			this.headers = headers;
+		}
+
+		public String label() {
+			return label;
+		}
+
+		public List<String> headers() {
+			return headers;
+		}
+
+		public int rowCount() {
+			return view != null ? view.size() : copied.size();
+		}
+
+		public String value(int row, int column) {
+			if (view != null) {
+				return view.value(row, column);
+			}
+			String[] values = copied.get(row);
+			return column < values.length ? values[column] : "";
+		}
+
+		List<String> row(int row) {
+			if (view == null) {
+				return List.of(copied.get(row));
+			}
+			String[] values = new String[headers.size()];
+			for (int column = 0; column < values.length; column++) {
+				values[column] = view.value(row, column);
+			}
+			return Arrays.asList(values);
+		}
+
+		private void add(String[] values) {
+			if (view != null) {
+				for (int row = 0; row < view.size(); row++) {
+					copied.add(row(row).toArray(new String[0]));
+				}
+				view = null;
+			}
+			copied.add(values);
+		}
+	}
+}
@@ -0,0 +1,36 @@
+package org.example;
+
+import javax.swing.table.AbstractTableModel;
+
+public class SectionTableModel extends AbstractTableModel {
+	private final ResultModel.Section section;
+
+	public SectionTableModel(ResultModel.Section section) {
+		this.section = section;
+	}
+
+	@Override
+	public int getRowCount() {
+		return section.rowCount();
+	}
+
+	@Override
+	public int getColumnCount() {
+		return section.headers().size();
+	}
+
+	@Override
+	public String getColumnName(int column) {
+		return section.headers().get(column);
+	}
+
+	@Override
+	public Class<?> getColumnClass(int column) {
+		return String.class;
+	}
+
+	@Override
+	public Object getValueAt(int row, int column) {
+		return section.value(row, column);
+	}
+}
@@ -0,0 +1,106 @@
+package org.example;
+
+import org.example.tool.CsvRowSink;
+import org.example.tool.ExcelCompareFeature;
+import org.example.tool.ExcelHeaderReader;
+import org.example.tool.RowSink;
+import org.example.tool.RunControl;
+import org.example.tool.ToolFeature;
+import org.example.tool.XlsxRowSink;
+
+import javax.swing.SwingUtilities;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+// Builds the window contents, compares two generated workbooks and writes both export formats once, without a
+// display. The packaging scripts start the app with "warmup" to record which classes it loads for the class-data
+// sharing archive; it is not meant to be run by hand.
+class WarmupApp implements App {
+	private static final int SAMPLE_ROWS = 2000;
+	private static final List<String> HEADERS = List.of("Id", "Name", "Email", "Phone", "City", "Amount");
+
+	@Override
+	public int run(String[] args) {
+		System.setProperty("java.awt.headless", "true");
+		Path directory = null;
+		try {
+			directory = Files.createTempDirectory("internaltool-warmup");
+			System.setProperty("internaltool.snapshots", directory.resolve("sheets").toString());
+			warmUp(directory);
+			return CliApp.EXIT_OK;
+		} catch (Exception exception) {
+			System.err.println("Warm-up failed: " + exception);
+			return CliApp.EXIT_FAILURE;
+		} finally {
+			deleteQuietly(directory);
+		}
+	}
+
+	private void warmUp(Path directory) throws Exception {
+		Path left = directory.resolve("left.xlsx");
+		Path right = directory.resolve("right.xlsx");
+		Path leftCsv = directory.resolve("left.csv");
+		try (XlsxRowSink sink = new XlsxRowSink(left)) {
+			writeSample(sink, 0);
+		}
+		try (XlsxRowSink sink = new XlsxRowSink(right)) {
+			writeSample(sink, SAMPLE_ROWS / 10);
+		}
+		try (CsvRowSink sink = CsvRowSink.toFile(leftCsv)) {
+			writeSample(sink, 0);
+		}
+
+		GuiApp gui = new GuiApp();
+		SwingUtilities.invokeAndWait(() -> {
+			gui.buildContent();
+			gui.selectFeature(ExcelCompareFeature.NAME);
+		});
+
+		ExcelHeaderReader headerReader = new ExcelHeaderReader();
+		headerReader.readHeaders(left, null);
+		headerReader.readHeaders(right, null);
+
+		ToolFeature feature = new ExcelCompareFeature();
+		feature.configure(new String[] {"--left", left.toString(), "--right", right.toString(),
+				"--map", "Email=Email:email", "--mode", "changes"});
+		ResultModel model = new ResultModel();
+		feature.run(model, new RunControl());
+		SwingUtilities.invokeAndWait(() -> gui.showResult(model));
+		GuiApp.writeXlsx(directory.resolve("result.xlsx"), model);
+
+		int exitCode = new CliApp(System.out, System.err).run(new String[] {ExcelCompareFeature.NAME,
+				"--left", leftCsv.toString(), "--right", right.toString(), "--map", "Id=Id", "--mode", "union",
+				"--out", directory.resolve("result.csv").toString()});
+		if (exitCode != CliApp.EXIT_OK) {
+			throw new IllegalStateException("command line compare exited with " + exitCode);
+		}
+	}
+
+	// Rows shift by offset between the sides, so a compare finds new, removed and modified rows.
+	private static void writeSample(RowSink sink, int offset) throws IOException {
+		sink.startSection(null, HEADERS);
+		for (int row = offset; row < SAMPLE_ROWS + offset; row++) {
+			String city = row % 7 == 0 ? "Bergen" : "Oslo";
+			sink.row(List.of(Integer.toString(row), "Name " + row, "user" + row + "@example.com",
+					"+47 " + (40000000 + row), offset > 0 && row % 5 == 0 ? city.toUpperCase() : city,
+					Double.toString(row * 1.5)));
+		}
+		sink.endSection();
+	}
+
+	private static void deleteQuietly(Path directory) {
+		if (directory == null) {
+			return;
+		}
+		try (Stream<Path> paths = Files.walk(directory)) {
+			for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+				Files.deleteIfExists(path);
+			}
+		} catch (IOException ignored) {
+		}
+	}
+}
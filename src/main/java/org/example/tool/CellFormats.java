@@ -0,0 +1,144 @@
+package org.example.tool;
+
+import org.apache.poi.ss.usermodel.BuiltinFormats;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.usermodel.ExcelGeneralNumberFormat;
+import org.apache.poi.util.LocaleUtil;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFCell;
+import org.apache.poi.xssf.usermodel.XSSFCellStyle;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+
+import java.math.BigDecimal;
+import java.text.DecimalFormatSymbols;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+// Formats numeric xlsx cells as DataFormatter.formatCellValue does for a numeric cell. Each cell style's format is
+// resolved once; whole numbers in General and "0" are written directly, other General numbers skip DataFormatter's
+// format lookup and dates, custom and conditional formats still go through DataFormatter.
+final class CellFormats {
+	private static final double MAX_PLAIN_INTEGER = 1E11;
+
+	private final StylesTable styles;
+	private final boolean date1904;
+	private final DataFormatter formatter = new DataFormatter();
+	private final ExcelGeneralNumberFormat general;
+	private final boolean plainDigits;
+	private final Map<String, XSSFCellStyle> scratchStyles = new HashMap<>();
+	private Format[] byStyle = new Format[16];
+	private XSSFCell scratch;
+
+	CellFormats(StylesTable styles, boolean date1904) {
+		this.styles = styles;
+		this.date1904 = date1904;
+		Locale locale = LocaleUtil.getUserLocale();
+		general = new ExcelGeneralNumberFormat(locale);
+		plainDigits = DecimalFormatSymbols.getInstance(locale).getZeroDigit() == '0';
+	}
+
+	String format(String styleIndex, double number) {
+		if (styles == null) {
+			// POI gives a workbook without a styles part a default style, so every cell is General.
+			return formatGeneral(number);
+		}
+		int index = styleIndex == null ? 0 : Integer.parseInt(styleIndex);
+		Format format = resolve(index);
+		return switch (format.kind) {
+			case NONE -> String.valueOf(number);
+			case GENERAL -> formatGeneral(number);
+			case INTEGER -> isPlainInteger(number) ? Long.toString((long) number) : formatOther(format, number);
+			case OTHER -> formatOther(format, number);
+		};
+	}
+
+	// formatRawCellContents formats dates as formatCellValue does, but not numbers: it rounds them to 15 digits first
+	// and only writes E+ for some formats. Numbers are therefore formatted on a scratch cell with the same format.
+	private String formatOther(Format format, double number) {
+		if (format.date && DateUtil.isValidExcelDate(number)) {
+			return formatter.formatRawCellContents(number, format.index, format.pattern, date1904);
+		}
+		if (scratch == null) {
+			scratch = new XSSFWorkbook().createSheet().createRow(0).createCell(0);
+		}
+		XSSFCellStyle style = scratchStyles.get(format.pattern);
+		if (style == null) {
+			XSSFWorkbook workbook = scratch.getSheet().getWorkbook();
+			style = workbook.createCellStyle();
+			style.setDataFormat(workbook.createDataFormat().getFormat(format.pattern));
+			scratchStyles.put(format.pattern, style);
+		}
+		scratch.setCellStyle(style);
+		scratch.setCellValue(number);
+		return formatter.formatCellValue(scratch);
+	}
+
+	private Format resolve(int index) {
+		if (index < 0) {
+			return Format.NO_STYLE;
+		}
+		if (index >= byStyle.length) {
+			byStyle = Arrays.copyOf(byStyle, Math.max(byStyle.length * 2, index + 1));
+		}
+		Format format = byStyle[index];
+		if (format == null) {
+			format = Format.of(index == 0 && styles.getNumCellStyles() == 0 ? null : styles.getStyleAt(index));
+			byStyle[index] = format;
+		}
+		return format;
+	}
+
+	private boolean isPlainInteger(double number) {
+		return plainDigits && number >= 0 && number < MAX_PLAIN_INTEGER && Math.floor(number) == number;
+	}
+
+	// The General branch of formatCellValue, without the date check and format lookup.
+	private String formatGeneral(double number) {
+		if (isPlainInteger(number)) {
+			return Long.toString((long) number);
+		}
+		String result;
+		try {
+			result = general.format(BigDecimal.valueOf(number));
+		} catch (NumberFormatException exception) {
+			result = general.format(number);
+		}
+		return result.replaceFirst("E(\\d)", "E+$1");
+	}
+
+	private enum Kind {
+		NONE, GENERAL, INTEGER, OTHER
+	}
+
+	private record Format(Kind kind, short index, String pattern, boolean date) {
+		private static final Format NO_STYLE = new Format(Kind.NONE, (short) 0, null, false);
+
+		static Format of(XSSFCellStyle style) {
+			if (style == null) {
+				return NO_STYLE;
+			}
+			short index = style.getDataFormat();
+			String pattern = style.getDataFormatString();
+			if (pattern == null) {
+				pattern = BuiltinFormats.getBuiltinFormat(index);
+			}
+			if (pattern == null || pattern.isBlank()) {
+				// formatCellValue has no format to apply either
+				return NO_STYLE;
+			}
+			Kind kind = Kind.OTHER;
+			boolean date = DateUtil.isADateFormat(index, pattern);
+			if (!date) {
+				if (pattern.equalsIgnoreCase("General") || pattern.equals("@")) {
+					kind = Kind.GENERAL;
+				} else if (pattern.equals("0")) {
+					kind = Kind.INTEGER;
+				}
+			}
+			return new Format(kind, index, pattern, date);
+		}
+	}
+}
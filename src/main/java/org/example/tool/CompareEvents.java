@@ -0,0 +1,222 @@
+package org.example.tool;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Registered;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timestamp;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+// Flight Recorder events for each phase of a compare run. Callers fill the fields only after shouldCommit(), so with
+// recording off an event is a dead allocation the JIT removes and no file is stat'ed. The events are registered only
+// once Flight Recorder is running: loading a registered event class starts JFR's metadata bootstrap (~400 ms).
+public final class CompareEvents {
+	private static final String CATEGORY = "InternalTool";
+	private static final List<Class<? extends Event>> EVENTS = List.of(WorkbookOpen.class,
+			SheetParse.class, KeyExtraction.class, Classification.class, Output.class, Export.class, HeaderScan.class,
+			SheetSnapshot.class);
+	private static volatile boolean registered;
+
+	private CompareEvents() {
+	}
+
+	// Called at the start of each run, so a recording started later with jcmd is picked up by the next run.
+	public static void register() {
+		if (registered || !FlightRecorder.isInitialized()) {
+			return;
+		}
+		synchronized (CompareEvents.class) {
+			if (!registered) {
+				EVENTS.forEach(FlightRecorder::register);
+				registered = true;
+			}
+		}
+	}
+
+	@Name("org.example.WorkbookOpen")
+	@Label("Workbook Open")
+	@Description("Opening an xlsx/xls package up to the first sheet row: styles and workbook metadata")
+	@Category({CATEGORY, "Read"})
+	@StackTrace(false)
+	@Registered(false)
+	public static final class WorkbookOpen extends FileEvent {
+		@Label("Sheet")
+		public String sheet;
+	}
+
+	@Name("org.example.SheetParse")
+	@Label("Sheet Parse")
+	@Description("Reading every row of a sheet or CSV file into memory or into spill files")
+	@Category({CATEGORY, "Read"})
+	@StackTrace(false)
+	@Registered(false)
+	public static final class SheetParse extends FileEvent {
+		@Label("Sheet")
+		public String sheet;
+
+		@Label("Rows")
+		public long rows;
+
+		@Label("Columns")
+		public int columns;
+
+		@Label("Parsed Size")
+		@Description("Estimated heap held by the parsed sheet, 0 when it was spilled to disk")
+		@DataAmount
+		public long parsedBytes;
+
+		@Label("Spilled")
+		public boolean spilled;
+	}
+
+	@Name("org.example.SheetSnapshot")
+	@Label("Sheet Snapshot")
+	@Description("Mapping a stored snapshot of a parsed sheet, or writing one after a parse")
+	@Category({CATEGORY, "Read"})
+	@StackTrace(false)
+	@Registered(false)
+	public static final class SheetSnapshot extends FileEvent {
+		@Label("Sheet")
+		public String sheet;
+
+		@Label("Rows")
+		public long rows;
+
+		@Label("Columns")
+		public int columns;
+
+		@Label("Snapshot Size")
+		@DataAmount
+		public long snapshotBytes;
+
+		@Label("Loaded")
+		@Description("True when the snapshot replaced a parse, false when it was written")
+		public boolean loaded;
+	}
+
+	@Name("org.example.KeyExtraction")
+	@Label("Key Extraction")
+	@Description("Building (or reusing) the key index of one side")
+	@Category({CATEGORY, "Compare"})
+	@StackTrace(false)
+	@Registered(false)
+	public static final class KeyExtraction extends FileEvent {
+		@Label("Rows")
+		public long rows;
+
+		@Label("Distinct Keys")
+		public long keys;
+
+		@Label("Parsed Size")
+		@DataAmount
+		public long parsedBytes;
+	}
+
+	@Name("org.example.Classification")
+	@Label("Classification")
+	@Description("Matching the keys of both sides, including fuzzy matching and the external merge")
+	@Category({CATEGORY, "Compare"})
+	@StackTrace(false)
+	@Registered(false)
+	public static final class Classification extends Event {
+		@Label("Left File")
+		public String leftFile;
+
+		@Label("Right File")
+		public String rightFile;
+
+		@Label("Left Rows")
+		public long leftRows;
+
+		@Label("Right Rows")
+		public long rightRows;
+
+		@Label("Left Only Keys")
+		public long leftOnly;
+
+		@Label("Right Only Keys")
+		public long rightOnly;
+
+		@Label("External")
+		public boolean external;
+
+		@Label("Fuzzy Threshold")
+		public double fuzzyThreshold;
+	}
+
+	@Name("org.example.Output")
+	@Label("Output Section")
+	@Description("Writing one result section to the row sink (table, CSV or xlsx)")
+	@Category({CATEGORY, "Output"})
+	@StackTrace(false)
+	@Registered(false)
+	public static final class Output extends Event {
+		@Label("Section")
+		public String section;
+
+		@Label("Rows")
+		public long rows;
+
+		@Label("Columns")
+		public int columns;
+	}
+
+	@Name("org.example.Export")
+	@Label("Export")
+	@Description("Writing a result file, from the GUI export or the command line --out")
+	@Category({CATEGORY, "Output"})
+	@StackTrace(false)
+	@Registered(false)
+	public static final class Export extends FileEvent {
+		@Label("Rows")
+		public long rows;
+	}
+
+	@Name("org.example.HeaderScan")
+	@Label("Header Scan")
+	@Description("Reading the header row of a file for the mapping panel")
+	@Category({CATEGORY, "Read"})
+	@StackTrace(false)
+	@Registered(false)
+	public static final class HeaderScan extends FileEvent {
+		@Label("Sheet")
+		public String sheet;
+
+		@Label("Columns")
+		public int columns;
+	}
+
+	// File identity as the sheet cache sees it: absolute path, size and modification time.
+	@Registered(false)
+	abstract static class FileEvent extends Event {
+		@Label("File")
+		public String file;
+
+		@Label("File Size")
+		@DataAmount
+		public long fileSize;
+
+		@Label("File Modified")
+		@Timestamp
+		public long fileModified;
+
+		public void identify(Path path) {
+			try {
+				FileIdentity identity = FileIdentity.of(path);
+				file = identity.path().toString();
+				fileSize = identity.size();
+				fileModified = identity.modifiedMillis();
+			} catch (IOException exception) {
+				file = path.toString();
+			}
+		}
+	}
+}
@@ -0,0 +1,106 @@
+package org.example.tool;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Results are only kept for sheets the sheet cache holds, and dropped when it evicts them, so the pipeline never keeps a
+// sheet alive past the cache's byte budget.
+final class ComparePipeline {
+	private static final ComparePipeline SHARED = new ComparePipeline(SheetCache.shared(), 8, 4);
+
+	private final SheetCache sheets;
+	private final Map<IndexKey, KeyIndex> indexes;
+	private final Map<ClassificationKey, KeyClassification> classifications;
+	private final Map<HashKey, long[]> contentHashes;
+
+	ComparePipeline(SheetCache sheets, int maxIndexes, int maxClassifications) {
+		this.sheets = sheets;
+		indexes = lruMap(maxIndexes);
+		classifications = lruMap(maxClassifications);
+		contentHashes = lruMap(maxIndexes);
+		sheets.addEvictionListener(this::forget);
+	}
+
+	static ComparePipeline shared() {
+		return SHARED;
+	}
+
+	KeyIndex keyIndex(ParsedSheet sheet, int[] keyColumns, KeyNormalization normalization, RunControl control) {
+		IndexKey key = new IndexKey(sheet, Arrays.stream(keyColumns).boxed().toList(), normalization);
+		KeyIndex cached = get(indexes, key);
+		if (cached != null) {
+			return cached;
+		}
+		KeyIndex index = KeyIndex.build(sheet, keyColumns, normalization, control);
+		put(indexes, key, index, sheet, sheet);
+		return index;
+	}
+
+	KeyClassification classify(KeyIndex left, KeyIndex right, double fuzzyThreshold, RunControl control) {
+		ClassificationKey key = new ClassificationKey(left, right, fuzzyThreshold);
+		KeyClassification cached = get(classifications, key);
+		if (cached != null) {
+			return cached;
+		}
+		KeyClassification classification = KeyClassification.classify(left, right, control);
+		if (fuzzyThreshold > 0) {
+			classification = FuzzyMatcher.match(classification, left, right, fuzzyThreshold, control);
+		}
+		put(classifications, key, classification, left.sheet(), right.sheet());
+		return classification;
+	}
+
+	long[] contentHashes(ParsedSheet sheet, int[] columns, RunControl control) {
+		HashKey key = new HashKey(sheet, Arrays.stream(columns).boxed().toList());
+		long[] cached = get(contentHashes, key);
+		if (cached != null) {
+			return cached;
+		}
+		long[] hashes = ContentHash.rows(sheet, columns, control);
+		put(contentHashes, key, hashes, sheet, sheet);
+		return hashes;
+	}
+
+	synchronized void clear() {
+		indexes.clear();
+		classifications.clear();
+		contentHashes.clear();
+	}
+
+	private synchronized <K, V> V get(Map<K, V> map, K key) {
+		return map.get(key);
+	}
+
+	private synchronized <K, V> void put(Map<K, V> map, K key, V value, ParsedSheet left, ParsedSheet right) {
+		if (sheets.holds(left) && sheets.holds(right)) {
+			map.put(key, value);
+		}
+	}
+
+	synchronized void forget(ParsedSheet sheet) {
+		indexes.keySet().removeIf(key -> key.sheet() == sheet);
+		contentHashes.keySet().removeIf(key -> key.sheet() == sheet);
+		classifications.keySet().removeIf(key -> key.left().sheet() == sheet || key.right().sheet() == sheet);
+	}
+
+	private static <K, V> Map<K, V> lruMap(int maxEntries) {
+		return new LinkedHashMap<>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+				return size() > maxEntries;
+			}
+		};
+	}
+
+	// ParsedSheet and KeyIndex compare by identity, so a reparsed file never matches a stale entry.
+	private record IndexKey(ParsedSheet sheet, List<Integer> keyColumns, KeyNormalization normalization) {
+	}
+
+	private record HashKey(ParsedSheet sheet, List<Integer> columns) {
+	}
+
+	private record ClassificationKey(KeyIndex left, KeyIndex right, double fuzzyThreshold) {
+	}
+}
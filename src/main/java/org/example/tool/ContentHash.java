@@ -0,0 +1,52 @@
+package org.example.tool;
+
+// 64-bit hash over the compared (non-key) cells of a row; matched rows with equal hashes are not diffed.
+public final class ContentHash {
+	private static final long P = 0x9E3779B97F4A7C15L;
+
+	private ContentHash() {
+	}
+
+	// Value hashes are cached per dictionary code, so each distinct cell is hashed once.
+	public static long[] rows(ParsedSheet sheet, int[] columns, RunControl control) {
+		long[] valueHashes = new long[sheet.distinctValues()];
+		Fingerprint128 fingerprint = new Fingerprint128();
+		long[] hashes = new long[sheet.rowCount()];
+		for (int row = 0; row < hashes.length; row++) {
+			if ((row & 1023) == 0) {
+				control.checkCancelled();
+			}
+			long hash = 0;
+			for (int column : columns) {
+				int code = column < 0 ? 0 : sheet.code(row, column);
+				long value = valueHashes[code];
+				if (value == 0) {
+					value = valueHash(fingerprint, sheet.dictionaryValue(code));
+					valueHashes[code] = value;
+				}
+				hash = combine(hash, value);
+			}
+			hashes[row] = hash;
+		}
+		return hashes;
+	}
+
+	static long of(String[] values, int[] columns, Fingerprint128 fingerprint) {
+		long hash = 0;
+		for (int column : columns) {
+			hash = combine(hash, valueHash(fingerprint, column < 0 ? "" : values[column]));
+		}
+		return hash;
+	}
+
+	private static long valueHash(Fingerprint128 fingerprint, String value) {
+		fingerprint.reset();
+		fingerprint.add(value);
+		long hash = fingerprint.hi();
+		return hash == 0 ? 1 : hash;
+	}
+
+	private static long combine(long hash, long value) {
+		return Long.rotateLeft((hash ^ value) * P, 29);
+	}
+}
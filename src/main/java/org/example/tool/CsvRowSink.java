@@ -0,0 +1,75 @@
+package org.example.tool;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+public class CsvRowSink implements RowSink, Closeable {
+	private final Writer writer;
+	private final String lineSeparator = System.lineSeparator();
+	private boolean firstSection = true;
+
+	public CsvRowSink(Writer writer) {
+		this.writer = writer;
+	}
+
+	public CsvRowSink(OutputStream output) {
+		this(new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8)));
+	}
+
+	public static CsvRowSink toFile(Path target) throws IOException {
+		return new CsvRowSink(Files.newBufferedWriter(target, StandardCharsets.UTF_8));
+	}
+
+	@Override
+	public void startSection(String label, List<String> headers) throws IOException {
+		if (!firstSection) {
+			writer.write(lineSeparator);
+		}
+		firstSection = false;
+		if (label != null) {
+			writer.write("[" + label + "]");
+			writer.write(lineSeparator);
+		}
+		row(headers);
+	}
+
+	@Override
+	public void row(List<String> values) throws IOException {
+		writer.write(toCsvLine(values));
+		writer.write(lineSeparator);
+	}
+
+	public void flush() throws IOException {
+		writer.flush();
+	}
+
+	@Override
+	public void close() throws IOException {
+		writer.close();
+	}
+
+	public static String toCsvLine(List<String> values) {
+		StringBuilder line = new StringBuilder();
+		for (int i = 0; i < values.size(); i++) {
+			if (i > 0) {
+				line.append(',');
+			}
+			String safe = values.get(i) == null ? "" : values.get(i);
+			boolean needsQuotes = safe.contains(",") || safe.contains("\"") || safe.contains("\n") || safe.contains("\r");
+			if (needsQuotes) {
+				line.append('"').append(safe.replace("\"", "\"\"")).append('"');
+			} else {
+				line.append(safe);
+			}
+		}
+		return line.toString();
+	}
+}
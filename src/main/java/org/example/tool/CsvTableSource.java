@@ -0,0 +1,245 @@
+package org.example.tool;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+// UTF-8 text parsed straight from mapped windows of the file; fields are decoded without per-character copies.
+final class CsvTableSource implements TableSource {
+	private static final long WINDOW_BYTES = 64L << 20;
+	private static final int SNIFF_BYTES = 1 << 16;
+	private static final long ESTIMATED_BYTES_PER_FILE_BYTE = 3;
+
+	private final Path path;
+	private final byte fixedDelimiter;
+
+	CsvTableSource(Path path, byte delimiter) {
+		this.path = path;
+		this.fixedDelimiter = delimiter;
+	}
+
+	@Override
+	public void read(SheetRowHandler handler) throws Exception {
+		parse(handler, false);
+	}
+
+	@Override
+	public String[] readHeaderRow() throws Exception {
+		String[][] header = {new String[0]};
+		parse((rowIndex, cells, width) -> header[0] = Arrays.copyOf(cells, width), true);
+		return header[0];
+	}
+
+	@Override
+	public long estimatedParsedBytes() throws IOException {
+		return ESTIMATED_BYTES_PER_FILE_BYTE * Files.size(path);
+	}
+
+	private void parse(SheetRowHandler handler, boolean headerOnly) throws Exception {
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			long size = channel.size();
+			Parser parser = new Parser(handler);
+			long start = 0;
+			long window = WINDOW_BYTES;
+			while (start < size) {
+				long length = Math.min(window, size - start);
+				boolean last = start + length == size;
+				MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+				int offset = 0;
+				if (start == 0) {
+					offset = bomLength(buffer);
+					parser.delimiter = fixedDelimiter != 0 ? fixedDelimiter : sniffDelimiter(buffer, offset);
+				}
+				int consumed = parser.parse(buffer, offset, last, headerOnly);
+				if (parser.done) {
+					return;
+				}
+				if (consumed == 0 && !last) {
+					if (window >= Integer.MAX_VALUE) {
+						throw new IOException("CSV record larger than 2 GB in " + path);
+					}
+					window = Math.min(Integer.MAX_VALUE, window * 2);
+				}
+				start += consumed;
+			}
+		}
+	}
+
+	private static int bomLength(MappedByteBuffer buffer) {
+		if (buffer.limit() >= 3 && buffer.get(0) == (byte) 0xEF && buffer.get(1) == (byte) 0xBB
+				&& buffer.get(2) == (byte) 0xBF) {
+			return 3;
+		}
+		return 0;
+	}
+
+	private static byte sniffDelimiter(MappedByteBuffer buffer, int offset) {
+		int commas = 0;
+		int semicolons = 0;
+		int tabs = 0;
+		boolean quoted = false;
+		int limit = Math.min(buffer.limit(), offset + SNIFF_BYTES);
+		for (int i = offset; i < limit; i++) {
+			byte b = buffer.get(i);
+			if (b == '"') {
+				quoted = !quoted;
+			} else if (!quoted) {
+				if (b == '\n' || b == '\r') {
+					break;
+				}
+				if (b == ',') {
+					commas++;
+				} else if (b == ';') {
+					semicolons++;
+				} else if (b == '\t') {
+					tabs++;
+				}
+			}
+		}
+		if (semicolons > commas && semicolons >= tabs) {
+			return ';';
+		}
+		return tabs > commas ? (byte) '\t' : (byte) ',';
+	}
+
+	private static final class Parser {
+		private final SheetRowHandler handler;
+		private byte delimiter = ',';
+		private String[] cells = new String[16];
+		private int width;
+		private int rowIndex;
+		private byte[] scratch = new byte[256];
+		private boolean done;
+
+		private Parser(SheetRowHandler handler) {
+			this.handler = handler;
+		}
+
+		// Returns the position after the last complete record; a record cut off by the window is left for the next one.
+		private int parse(MappedByteBuffer buffer, int position, boolean last, boolean headerOnly) throws Exception {
+			int limit = buffer.limit();
+			while (position < limit) {
+				byte b = buffer.get(position);
+				if (b == '\n' || b == '\r') {
+					position++;
+					continue;
+				}
+				int end = record(buffer, position, limit, last);
+				if (end < 0) {
+					return position;
+				}
+				handler.row(rowIndex++, cells, width);
+				position = end;
+				if (headerOnly) {
+					done = true;
+					return position;
+				}
+			}
+			return position;
+		}
+
+		private int record(MappedByteBuffer buffer, int position, int limit, boolean last) {
+			Arrays.fill(cells, 0, width, null);
+			width = 0;
+			while (true) {
+				if (position < limit && buffer.get(position) == '"') {
+					int length = 0;
+					int i = position + 1;
+					while (true) {
+						int quote = indexOfQuote(buffer, i, limit);
+						if (quote < 0) {
+							if (!last) {
+								return -1;
+							}
+							length = append(buffer, i, limit, length);
+							i = limit;
+							break;
+						}
+						length = append(buffer, i, quote, length);
+						if (quote + 1 >= limit && !last) {
+							return -1;
+						}
+						if (quote + 1 < limit && buffer.get(quote + 1) == '"') {
+							length = append(buffer, quote, quote + 1, length);
+							i = quote + 2;
+							continue;
+						}
+						i = quote + 1;
+						break;
+					}
+					int end = fieldEnd(buffer, i, limit);
+					if (end == limit && !last) {
+						return -1;
+					}
+					length = append(buffer, i, end, length);
+					add(new String(scratch, 0, length, StandardCharsets.UTF_8));
+					position = end;
+				} else {
+					int end = fieldEnd(buffer, position, limit);
+					if (end == limit && !last) {
+						return -1;
+					}
+					int length = append(buffer, position, end, 0);
+					add(length == 0 ? "" : new String(scratch, 0, length, StandardCharsets.UTF_8));
+					position = end;
+				}
+				if (position >= limit) {
+					return position;
+				}
+				byte b = buffer.get(position);
+				if (b == delimiter) {
+					position++;
+					if (position >= limit && last) {
+						add("");
+						return position;
+					}
+					continue;
+				}
+				if (b == '\r' && position + 1 < limit && buffer.get(position + 1) == '\n') {
+					return position + 2;
+				}
+				return position + 1;
+			}
+		}
+
+		private int fieldEnd(MappedByteBuffer buffer, int position, int limit) {
+			for (int i = position; i < limit; i++) {
+				byte b = buffer.get(i);
+				if (b == delimiter || b == '\n' || b == '\r') {
+					return i;
+				}
+			}
+			return limit;
+		}
+
+		private static int indexOfQuote(MappedByteBuffer buffer, int position, int limit) {
+			for (int i = position; i < limit; i++) {
+				if (buffer.get(i) == '"') {
+					return i;
+				}
+			}
+			return -1;
+		}
+
+		private int append(MappedByteBuffer buffer, int from, int to, int length) {
+			int count = to - from;
+			if (length + count > scratch.length) {
+				scratch = Arrays.copyOf(scratch, Math.max(scratch.length * 2, length + count));
+			}
+			buffer.get(from, scratch, length, count);
+			return length + count;
+		}
+
+		private void add(String value) {
+			if (width == cells.length) {
+				cells = Arrays.copyOf(cells, width * 2);
+			}
+			cells[width++] = value;
+		}
+	}
+}
@@ -1,30 +1,33 @@
 package org.example.tool;
 
-import org.apache.poi.ss.usermodel.Cell;
-import org.apache.poi.ss.usermodel.DataFormatter;
-import org.apache.poi.ss.usermodel.Row;
-import org.apache.poi.ss.usermodel.Sheet;
-import org.apache.poi.ss.usermodel.Workbook;
-import org.apache.poi.ss.usermodel.WorkbookFactory;
-
-import java.io.FileInputStream;
-import java.io.InputStream;
+import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.LinkedHashMap;
+import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 public class ExcelCompareFeature implements ToolFeature {
+	public static final String NAME = "excel-compare";
+
 	private Path leftPath;
 	private Path rightPath;
 	private Mode mode = Mode.UNION;
 	private String sheetName;
+	private long memoryLimitBytes = Runtime.getRuntime().maxMemory() / 4;
+	private double fuzzyThreshold;
 	private final java.util.List<HeaderPair> mappings = new java.util.ArrayList<>();
 
 	private enum Mode {
@@ -36,25 +39,26 @@ public class ExcelCompareFeature implements ToolFeature {
 
 	@Override
 	public String name() {
-		return "excel-compare";
+		return NAME;
 	}
 
 	@Override
 	public String description() {
-		return "Compare rows between two Excel files using mapped columns.";
+		return "Compare rows between two Excel or CSV files using mapped columns.";
 	}
 
 	@Override
 	public String usage() {
-		return "excel-compare --left <path> --right <path> --map <left=right> [--map <left=right> ...] "
-				+ "--mode <union|left-only|right-only|symmetric-diff|changes> [--sheet <name>]";
+		return "excel-compare --left <path> --right <path> --map <left=right[:case,space,phone,email]> "
+				+ "[--map <left=right> ...] --mode <union|left-only|right-only|symmetric-diff|changes> [--sheet <name>] "
+				+ "[--memory-limit <MB>] [--fuzzy <0-1>]";
 	}
 
 	@Override
 	public java.util.List<FeatureArgument> arguments() {
 		return java.util.List.of(
-				FeatureArgument.file("left", "Left Excel file", true),
-				FeatureArgument.file("right", "Right Excel file", true),
+				FeatureArgument.file("left", "Left file (Excel or CSV)", true),
+				FeatureArgument.file("right", "Right file (Excel or CSV)", true),
 				FeatureArgument.choice(
 						"mode",
 						"Comparison mode",
@@ -62,6 +66,7 @@ public class ExcelCompareFeature implements ToolFeature {
 						java.util.List.of("union", "left-only", "right-only",  "changes (old - new)")
 				),
 				FeatureArgument.text("sheet", "Sheet name (optional)", false),
+				FeatureArgument.choice("fuzzy", "Fuzzy key matching", false, java.util.List.of("off", "0.9", "0.8", "0.7")),
 				FeatureArgument.mapping("map", "Header mapping", true)
 		);
 	}
@@ -78,6 +83,28 @@ public class ExcelCompareFeature implements ToolFeature {
 			mappings.add(pair);
 		}
 
+		String memoryLimit = cli.getOptional("memory-limit");
+		if (memoryLimit != null) {
+			try {
+				memoryLimitBytes = Long.parseLong(memoryLimit) * 1024 * 1024;
+			} catch (NumberFormatException exception) {
+				throw new IllegalArgumentException("Invalid --memory-limit (megabytes): " + memoryLimit);
+			}
+		}
+
+		fuzzyThreshold = 0;
+		String fuzzy = cli.getOptional("fuzzy");
+		if (fuzzy != null && !fuzzy.equalsIgnoreCase("off")) {
+			try {
+				fuzzyThreshold = Double.parseDouble(fuzzy);
+			} catch (NumberFormatException exception) {
+				fuzzyThreshold = -1;
+			}
+			if (fuzzyThreshold <= 0 || fuzzyThreshold > 1) {
+				throw new IllegalArgumentException("Invalid --fuzzy similarity (use a value between 0 and 1): " + fuzzy);
+			}
+		}
+
 		String modeValue = cli.getOptional("mode");
 		if (modeValue != null) {
 			switch (modeValue.toLowerCase(Locale.ROOT)) {
@@ -90,6 +117,7 @@ public class ExcelCompareFeature implements ToolFeature {
 				case "right-only":
 					mode = Mode.RIGHT_ONLY;
 					break;
+				case "changes":
 				case "changes (old - new)":
 					mode = Mode.CHANGES;
 					break;
@@ -100,168 +128,357 @@ public class ExcelCompareFeature implements ToolFeature {
 	}
 
 	@Override
-	public int run() throws Exception {
+	public int run(RowSink sink, RunControl control) throws Exception {
+		CompareEvents.register();
 		validatePath(leftPath, "left");
 		validatePath(rightPath, "right");
 		if (mappings.isEmpty()) {
 			throw new IllegalArgumentException("At least one --map <left=right> is required");
 		}
 
-		SheetData leftData = readSheetData(leftPath);
-		SheetData rightData = readSheetData(rightPath);
+		if (exceedsMemoryLimit()) {
+			if (fuzzyThreshold > 0) {
+				throw new IllegalArgumentException("Fuzzy matching needs both files in memory; raise --memory-limit");
+			}
+			return runExternal(sink, control);
+		}
+
+		control.startPhase("Reading sheets");
+		SheetData[] sheets = readSheets(control);
+		SheetData leftData = sheets[0];
+		SheetData rightData = sheets[1];
 		validateMappings(leftData.headers, rightData.headers);
 
-		Set<Key> leftKeys = extractKeys(leftData, true);
-		Set<Key> rightKeys = extractKeys(rightData, false);
-		LinkedHashMap<Key, RowData> leftRows = extractRows(leftData, true);
-		LinkedHashMap<Key, RowData> rightRows = extractRows(rightData, false);
+		control.startPhase("Comparing");
+		CompareEvents.Classification event = new CompareEvents.Classification();
+		event.begin();
+		KeyClassification classification =
+				ComparePipeline.shared().classify(leftData.keys, rightData.keys, fuzzyThreshold, control);
+		if (event.shouldCommit()) {
+			commitClassification(event, leftData.sheet.rowCount(), rightData.sheet.rowCount(),
+					classification.leftOnlyCount(), classification.rightOnlyCount(), false);
+		}
 
-		Set<Key> result = new LinkedHashSet<>();
+		control.startPhase("Writing output");
 		switch (mode) {
 			case UNION:
-				printSection("LEFT", leftData.headers, listRows(leftRows, leftKeys));
-				Set<Key> rightOnlyUnion = new LinkedHashSet<>(rightKeys);
-				rightOnlyUnion.removeAll(leftKeys);
-				if (!rightOnlyUnion.isEmpty()) {
-					System.out.println();
-					printSection("RIGHT_ONLY", rightData.headers, listRows(rightRows, rightOnlyUnion));
+				printSection(sink, control, "LEFT", leftData, classification.leftRows());
+				if (classification.rightOnlyCount() > 0) {
+					printSection(sink, control, "RIGHT_ONLY", rightData, classification.rightOnlyRows());
 				}
 				return 0;
 			case LEFT_ONLY:
-				result.addAll(leftKeys);
-				result.removeAll(rightKeys);
-				printSection(null, leftData.headers, listRows(leftRows, result));
+				printSection(sink, control, null, leftData, classification.leftOnlyRows());
 				return 0;
 			case RIGHT_ONLY:
-				result.addAll(rightKeys);
-				result.removeAll(leftKeys);
-				printSection(null, rightData.headers, listRows(rightRows, result));
+				printSection(sink, control, null, rightData, classification.rightOnlyRows());
 				return 0;
 			case CHANGES:
-				Set<Key> newContacts = new LinkedHashSet<>(rightKeys);
-				newContacts.removeAll(leftKeys);
-				Set<Key> deprecated = new LinkedHashSet<>(leftKeys);
-				deprecated.removeAll(rightKeys);
-				printSection("NEW", rightData.headers, listRows(rightRows, newContacts));
-				System.out.println();
-				printSection("DEPRECATED", leftData.headers, listRows(leftRows, deprecated));
+				printSection(sink, control, "NEW", rightData, classification.rightOnlyRows());
+				printSection(sink, control, "DEPRECATED", leftData, classification.leftOnlyRows());
+				printModified(sink, control, leftData, rightData, classification.matchedRows());
 				return 0;
 			default:
 				throw new IllegalStateException("Unhandled mode: " + mode);
 		}
 	}
 
-	private void printSection(String label, List<String> headers, List<RowData> rows) {
-		if (label != null) {
-			System.out.println("[" + label + "]");
-		}
-		System.out.println(toCsvLine(headers));
-		for (RowData row : rows) {
-			System.out.println(toCsvLine(row.values));
+	private boolean exceedsMemoryLimit() throws IOException {
+		long estimate = TableSource.open(leftPath, sheetName).estimatedParsedBytes()
+				+ TableSource.open(rightPath, sheetName).estimatedParsedBytes();
+		return estimate > memoryLimitBytes;
+	}
+
+	private int runExternal(RowSink sink, RunControl control) throws Exception {
+		long sortBufferBytes = Math.min(64L << 20, Math.max(4L << 20, memoryLimitBytes / 8));
+		try (SpillDirectory spill = SpillDirectory.create()) {
+			control.startPhase("Reading sheets");
+			SheetExtractor leftExtractor = new SheetExtractor(true);
+			SheetExtractor rightExtractor = new SheetExtractor(false);
+			java.util.List<String> compared = mode == Mode.CHANGES
+					? comparedHeaders(ParsedSheet.readHeader(leftPath, sheetName).headers(),
+							ParsedSheet.readHeader(rightPath, sheetName).headers())
+					: java.util.List.of();
+			SpilledSheet[] sheets = inParallel(
+					() -> SpilledSheet.write(leftPath, sheetName, leftExtractor::keyColumnsFor, normalization(),
+							cells -> columnsFor(columnIndex(cells), compared), spill.path(), "left", sortBufferBytes,
+							control),
+					() -> SpilledSheet.write(rightPath, sheetName, rightExtractor::keyColumnsFor, normalization(),
+							cells -> columnsFor(columnIndex(cells), compared), spill.path(), "right", sortBufferBytes,
+							control),
+					new SpilledSheet[2]);
+			SpilledSheet left = sheets[0];
+			SpilledSheet right = sheets[1];
+			validateMappings(leftExtractor.headers, rightExtractor.headers);
+
+			control.startPhase("Comparing");
+			CompareEvents.Classification event = new CompareEvents.Classification();
+			event.begin();
+			ExternalClassification classification =
+					ExternalClassification.classify(left, right, spill.path(), sortBufferBytes, control);
+			if (event.shouldCommit()) {
+				commitClassification(event, left.rowCount(), right.rowCount(), classification.leftOnlyCount(),
+						classification.rightOnlyCount(), true);
+			}
+			byte[] leftFlags = classification.leftFlags();
+			byte[] rightFlags = classification.rightFlags();
+			java.util.List<String> leftHeaders = leftExtractor.headers;
+			java.util.List<String> rightHeaders = rightExtractor.headers;
+
+			control.startPhase("Writing output");
+			switch (mode) {
+				case UNION:
+					printSpilled(sink, control, "LEFT", leftHeaders, left, leftFlags, ExternalClassification.FIRST);
+					if (classification.rightOnlyCount() > 0) {
+						printSpilled(sink, control, "RIGHT_ONLY", rightHeaders, right, rightFlags,
+								ExternalClassification.ONLY);
+					}
+					return 0;
+				case LEFT_ONLY:
+					printSpilled(sink, control, null, leftHeaders, left, leftFlags, ExternalClassification.ONLY);
+					return 0;
+				case RIGHT_ONLY:
+					printSpilled(sink, control, null, rightHeaders, right, rightFlags, ExternalClassification.ONLY);
+					return 0;
+				case CHANGES:
+					printSpilled(sink, control, "NEW", rightHeaders, right, rightFlags, ExternalClassification.ONLY);
+					printSpilled(sink, control, "DEPRECATED", leftHeaders, left, leftFlags,
+							ExternalClassification.ONLY);
+					printSpilledModified(sink, control, classification, compared);
+					return 0;
+				default:
+					throw new IllegalStateException("Unhandled mode: " + mode);
+			}
 		}
 	}
 
-	private void validatePath(Path path, String label) {
-		if (path == null || !Files.exists(path)) {
-			throw new IllegalArgumentException("Missing or invalid --" + label + " path: " + path);
+	private void commitClassification(CompareEvents.Classification event, long leftRows, long rightRows,
+			long leftOnly, long rightOnly, boolean external) {
+		event.leftFile = leftPath.toAbsolutePath().toString();
+		event.rightFile = rightPath.toAbsolutePath().toString();
+		event.leftRows = leftRows;
+		event.rightRows = rightRows;
+		event.leftOnly = leftOnly;
+		event.rightOnly = rightOnly;
+		event.external = external;
+		event.fuzzyThreshold = fuzzyThreshold;
+		event.commit();
+	}
+
+	private static void commitOutput(CompareEvents.Output event, String label, long rows, int columns) {
+		if (event.shouldCommit()) {
+			event.section = label == null ? "" : label;
+			event.rows = rows;
+			event.columns = columns;
+			event.commit();
 		}
 	}
 
-	private SheetData readSheetData(Path path) throws Exception {
-		try (InputStream input = new FileInputStream(path.toFile());
-				 Workbook workbook = WorkbookFactory.create(input)) {
-			Sheet sheet = sheetName == null ? workbook.getSheetAt(0) : workbook.getSheet(sheetName);
-			if (sheet == null) {
-				throw new IllegalArgumentException("Sheet not found: " + sheetName);
+	private void printSpilled(RowSink sink, RunControl control, String label, java.util.List<String> headers,
+			SpilledSheet sheet, byte[] flags, byte mask) throws IOException {
+		CompareEvents.Output event = new CompareEvents.Output();
+		event.begin();
+		sink.startSection(label, headers);
+		int rows = sheet.writeRows(flags, mask, headers.size(), sink, control);
+		sink.endSection();
+		commitOutput(event, label, rows, headers.size());
+	}
+
+	private void printSpilledModified(RowSink sink, RunControl control, ExternalClassification classification,
+			java.util.List<String> compared) throws IOException {
+		CompareEvents.Output event = new CompareEvents.Output();
+		event.begin();
+		java.util.List<String> headers = modifiedHeaders();
+		sink.startSection("MODIFIED", headers);
+		int detailCount = mappings.size() + compared.size();
+		int pairs = 0;
+		long rows = 0;
+		try (ExternalClassification.ModifiedCursor modified = classification.modified()) {
+			for (ExternalClassification.Modified pair = modified.next(); pair != null; pair = modified.next()) {
+				if ((++pairs & 1023) == 0) {
+					control.checkCancelled();
+					control.addRows(1024);
+				}
+				rows += printModifiedCells(sink, pair.left().detailValues(detailCount),
+						pair.right().detailValues(detailCount), compared);
 			}
-			Row header = sheet.getRow(0);
-			Map<String, Integer> headerIndex = new HashMap<>();
-			java.util.List<String> headers = new ArrayList<>();
-			if (header != null) {
-				DataFormatter formatter = new DataFormatter();
-				for (Cell cell : header) {
-					String value = formatter.formatCellValue(cell).trim();
-					headers.add(value);
-					if (!value.isEmpty() && !headerIndex.containsKey(value)) {
-						headerIndex.put(value, cell.getColumnIndex());
-					}
+		}
+		sink.endSection();
+		commitOutput(event, "MODIFIED", rows, headers.size());
+	}
+
+	private void printSection(RowSink sink, RunControl control, String label, SheetData data, int[] rows)
+			throws IOException {
+		CompareEvents.Output event = new CompareEvents.Output();
+		event.begin();
+		sink.startSection(label, data.headers);
+		if (sink.rows(data.sheet.rows(rows, data.headers.size()))) {
+			control.addRows(rows.length);
+		} else {
+			for (int i = 0; i < rows.length; i++) {
+				if ((i & 1023) == 1023) {
+					control.checkCancelled();
+					control.addRows(1024);
 				}
+				sink.row(data.sheet.row(rows[i], data.headers.size()));
 			}
-			return new SheetData(sheet, headers, headerIndex);
 		}
+		sink.endSection();
+		commitOutput(event, label, rows.length, data.headers.size());
 	}
 
-	private void validateMappings(java.util.List<String> leftHeaders, java.util.List<String> rightHeaders) {
-		for (HeaderPair pair : mappings) {
-			if (!leftHeaders.contains(pair.left())) {
-				throw new IllegalArgumentException("Left header not found: " + pair.left());
+	// Only pairs whose content hashes differ are compared cell by cell.
+	private void printModified(RowSink sink, RunControl control, SheetData left, SheetData right, int[][] matched)
+			throws IOException {
+		java.util.List<String> compared = comparedHeaders(left.headers, right.headers);
+		int[] leftColumns = columnsFor(left.headerIndex, compared);
+		int[] rightColumns = columnsFor(right.headerIndex, compared);
+		long[] leftHashes = ComparePipeline.shared().contentHashes(left.sheet, leftColumns, control);
+		long[] rightHashes = ComparePipeline.shared().contentHashes(right.sheet, rightColumns, control);
+		CompareEvents.Output event = new CompareEvents.Output();
+		event.begin();
+		java.util.List<String> headers = modifiedHeaders();
+		sink.startSection("MODIFIED", headers);
+		long rows = 0;
+		int[] leftRows = matched[0];
+		int[] rightRows = matched[1];
+		for (int i = 0; i < leftRows.length; i++) {
+			if ((i & 1023) == 1023) {
+				control.checkCancelled();
+				control.addRows(1024);
 			}
-			if (!rightHeaders.contains(pair.right())) {
-				throw new IllegalArgumentException("Right header not found: " + pair.right());
+			if (leftHashes[leftRows[i]] == rightHashes[rightRows[i]]) {
+				continue;
 			}
+			rows += printModifiedCells(sink, left.detail(leftRows[i], leftColumns),
+					right.detail(rightRows[i], rightColumns), compared);
 		}
+		sink.endSection();
+		commitOutput(event, "MODIFIED", rows, headers.size());
 	}
 
-	private Set<Key> extractKeys(SheetData data, boolean useLeft) {
-		Set<Key> keys = new LinkedHashSet<>();
-		DataFormatter formatter = new DataFormatter();
-		int lastRow = data.sheet.getLastRowNum();
-		for (int i = 1; i <= lastRow; i++) {
-			Row row = data.sheet.getRow(i);
-			if (row == null) {
+	// Both arrays hold the key values followed by the compared values; one row is written per changed cell.
+	private int printModifiedCells(RowSink sink, String[] left, String[] right, java.util.List<String> compared)
+			throws IOException {
+		int keyCount = mappings.size();
+		int written = 0;
+		for (int i = 0; i < compared.size(); i++) {
+			String oldValue = left[keyCount + i];
+			String newValue = right[keyCount + i];
+			if (oldValue.equals(newValue)) {
 				continue;
 			}
-			java.util.List<String> values = new ArrayList<>();
-			boolean allBlank = true;
-			for (HeaderPair pair : mappings) {
-				String header = useLeft ? pair.left() : pair.right();
-				Integer index = data.headerIndex.get(header);
-				String value = index == null ? "" : formatter.formatCellValue(row.getCell(index)).trim();
-				if (!value.isEmpty()) {
-					allBlank = false;
-				}
-				values.add(value);
-			}
-			if (!allBlank) {
-				keys.add(new Key(java.util.List.copyOf(values)));
+			java.util.List<String> row = new ArrayList<>(keyCount + 3);
+			for (int key = 0; key < keyCount; key++) {
+				row.add(left[key]);
 			}
+			row.add(compared.get(i));
+			row.add(oldValue);
+			row.add(newValue);
+			sink.row(row);
+			written++;
 		}
-		return keys;
+		return written;
 	}
 
-	private LinkedHashMap<Key, RowData> extractRows(SheetData data, boolean useLeft) {
-		LinkedHashMap<Key, RowData> rows = new LinkedHashMap<>();
-		DataFormatter formatter = new DataFormatter();
-		int lastRow = data.sheet.getLastRowNum();
-		for (int i = 1; i <= lastRow; i++) {
-			Row row = data.sheet.getRow(i);
-			if (row == null) {
-				continue;
+	private java.util.List<String> modifiedHeaders() {
+		java.util.List<String> headers = new ArrayList<>();
+		for (HeaderPair pair : mappings) {
+			headers.add(pair.left());
+		}
+		headers.add("Column");
+		headers.add("Old value");
+		headers.add("New value");
+		return headers;
+	}
+
+	// Non-key columns with the same header on both sides, in left order.
+	private java.util.List<String> comparedHeaders(java.util.List<String> leftHeaders,
+			java.util.List<String> rightHeaders) {
+		Set<String> keys = new HashSet<>();
+		for (HeaderPair pair : mappings) {
+			keys.add(pair.left());
+			keys.add(pair.right());
+		}
+		Set<String> right = new HashSet<>(rightHeaders);
+		Set<String> compared = new LinkedHashSet<>();
+		for (String header : leftHeaders) {
+			if (!header.isEmpty() && right.contains(header) && !keys.contains(header)) {
+				compared.add(header);
 			}
-			List<String> values = new ArrayList<>();
-			for (int col = 0; col < data.headers.size(); col++) {
-				String value = formatter.formatCellValue(row.getCell(col)).trim();
-				values.add(value);
+		}
+		return java.util.List.copyOf(compared);
+	}
+
+	private static Map<String, Integer> columnIndex(String[] cells) {
+		Map<String, Integer> headerIndex = new HashMap<>();
+		for (int col = 0; col < cells.length; col++) {
+			if (cells[col] != null && !cells[col].isEmpty()) {
+				headerIndex.putIfAbsent(cells[col], col);
 			}
+		}
+		return headerIndex;
+	}
+
+	private static int[] columnsFor(Map<String, Integer> headerIndex, java.util.List<String> names) {
+		int[] columns = new int[names.size()];
+		for (int i = 0; i < columns.length; i++) {
+			columns[i] = headerIndex.getOrDefault(names.get(i), -1);
+		}
+		return columns;
+	}
+
+	private void validatePath(Path path, String label) {
+		if (path == null || !Files.exists(path)) {
+			throw new IllegalArgumentException("Missing or invalid --" + label + " path: " + path);
+		}
+	}
 
-			List<String> keyValues = new ArrayList<>();
-			boolean allBlank = true;
-			for (HeaderPair pair : mappings) {
-				String header = useLeft ? pair.left() : pair.right();
-				Integer index = data.headerIndex.get(header);
-				String value = index == null ? "" : formatter.formatCellValue(row.getCell(index)).trim();
-				if (!value.isEmpty()) {
-					allBlank = false;
+	private SheetData[] readSheets(RunControl control) throws Exception {
+		return inParallel(
+				() -> readSheetData(leftPath, true, control),
+				() -> readSheetData(rightPath, false, control),
+				new SheetData[2]);
+	}
+
+	// A failed side interrupts the other, which stops at its next cancellation check, and close() waits for it, so
+	// nothing is still writing into the spill directory or the sheet cache once this returns.
+	private static <T> T[] inParallel(Callable<T> left, Callable<T> right, T[] results) throws Exception {
+		try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+			CompletionService<T> completion = new ExecutorCompletionService<>(executor);
+			Future<T> leftResult = completion.submit(left);
+			Future<T> rightResult = completion.submit(right);
+			try {
+				completion.take().get();
+				completion.take().get();
+			} catch (ExecutionException | InterruptedException exception) {
+				executor.shutdownNow();
+				Throwable cause = exception instanceof ExecutionException ? exception.getCause() : exception;
+				if (cause instanceof Exception checked) {
+					throw checked;
 				}
-				keyValues.add(value);
+				throw (Error) cause;
 			}
-			if (allBlank) {
-				continue;
+			results[0] = leftResult.get();
+			results[1] = rightResult.get();
+			return results;
+		}
+	}
+
+	private SheetData readSheetData(Path path, boolean useLeft, RunControl control) throws Exception {
+		ParsedSheet sheet = SheetCache.shared().load(path, sheetName, control);
+		return new SheetExtractor(useLeft).extract(path, sheet, control);
+	}
+
+	private void validateMappings(java.util.List<String> leftHeaders, java.util.List<String> rightHeaders) {
+		for (HeaderPair pair : mappings) {
+			if (!leftHeaders.contains(pair.left())) {
+				throw new IllegalArgumentException("Left header not found: " + pair.left());
+			}
+			if (!rightHeaders.contains(pair.right())) {
+				throw new IllegalArgumentException("Right header not found: " + pair.right());
 			}
-			Key key = new Key(List.copyOf(keyValues));
-			rows.putIfAbsent(key, new RowData(List.copyOf(values)));
 		}
-		return rows;
 	}
 
 	private HeaderPair parseMapping(String mapArg) {
@@ -274,41 +491,83 @@ public class ExcelCompareFeature implements ToolFeature {
 		if (left.isEmpty() || right.isEmpty()) {
 			throw new IllegalArgumentException("Invalid mapping (use left=right): " + mapArg);
 		}
-		return new HeaderPair(left, right);
-	}
-
-	private List<RowData> listRows(LinkedHashMap<Key, RowData> rows, Set<Key> keys) {
-		List<RowData> list = new ArrayList<>();
-		for (Map.Entry<Key, RowData> entry : rows.entrySet()) {
-			if (keys.contains(entry.getKey())) {
-				list.add(entry.getValue());
+		java.util.List<KeyNormalizer> normalizers = java.util.List.of();
+		int suffix = right.lastIndexOf(':');
+		if (suffix > 0) {
+			java.util.List<KeyNormalizer> parsed = KeyNormalizer.parseList(right.substring(suffix + 1));
+			if (parsed != null) {
+				normalizers = parsed;
+				right = right.substring(0, suffix).trim();
 			}
 		}
-		return list;
+		return new HeaderPair(left, right, normalizers);
+	}
+
+	private KeyNormalization normalization() {
+		return new KeyNormalization(mappings.stream().map(HeaderPair::normalizers).toList());
 	}
 
-	private String toCsvLine(List<String> values) {
-		List<String> escaped = new ArrayList<>();
-		for (String value : values) {
-			String safe = value == null ? "" : value;
-			boolean needsQuotes = safe.contains(",") || safe.contains("\"") || safe.contains("\n") || safe.contains("\r");
-			if (needsQuotes) {
-				safe = "\"" + safe.replace("\"", "\"\"") + "\"";
+	private record SheetData(java.util.List<String> headers, Map<String, Integer> headerIndex, int[] keyColumns,
+			ParsedSheet sheet, KeyIndex keys) {
+		private String[] detail(int row, int[] contentColumns) {
+			String[] values = new String[keyColumns.length + contentColumns.length];
+			for (int key = 0; key < keyColumns.length; key++) {
+				values[key] = keyColumns[key] < 0 ? "" : sheet.value(row, keyColumns[key]);
+			}
+			for (int i = 0; i < contentColumns.length; i++) {
+				int column = contentColumns[i];
+				values[keyColumns.length + i] = column < 0 ? "" : sheet.value(row, column);
 			}
-			escaped.add(safe);
+			return values;
 		}
-		return String.join(",", escaped);
 	}
 
-	private record SheetData(Sheet sheet, java.util.List<String> headers, Map<String, Integer> headerIndex) {
-	}
+	private class SheetExtractor {
+		private final boolean useLeft;
+		private final java.util.List<String> headers = new ArrayList<>();
+		private int[] keyColumns = new int[0];
+		private Map<String, Integer> headerIndex = Map.of();
 
-	private record HeaderPair(String left, String right) {
-	}
+		private SheetExtractor(boolean useLeft) {
+			this.useLeft = useLeft;
+		}
+
+		private SheetData extract(Path path, ParsedSheet sheet, RunControl control) {
+			CompareEvents.KeyExtraction event = new CompareEvents.KeyExtraction();
+			event.begin();
+			readHeader(sheet.headerCells());
+			KeyIndex keys = ComparePipeline.shared().keyIndex(sheet, keyColumns, normalization(), control);
+			if (event.shouldCommit()) {
+				event.identify(path);
+				event.rows = sheet.rowCount();
+				event.keys = keys.size();
+				event.parsedBytes = sheet.estimatedBytes();
+				event.commit();
+			}
+			return new SheetData(headers, headerIndex, keyColumns, sheet, keys);
+		}
 
-	private record Key(java.util.List<String> values) {
+		private int[] keyColumnsFor(String[] cells) {
+			readHeader(cells);
+			return keyColumns;
+		}
+
+		private void readHeader(String[] cells) {
+			for (String cell : cells) {
+				if (cell != null) {
+					headers.add(cell);
+				}
+			}
+			headerIndex = columnIndex(cells);
+			keyColumns = new int[mappings.size()];
+			for (int i = 0; i < mappings.size(); i++) {
+				HeaderPair pair = mappings.get(i);
+				Integer index = headerIndex.get(useLeft ? pair.left() : pair.right());
+				keyColumns[i] = index == null ? -1 : index;
+			}
+		}
 	}
 
-	private record RowData(List<String> values) {
+	private record HeaderPair(String left, String right, java.util.List<KeyNormalizer> normalizers) {
 	}
 }
@@ -0,0 +1,223 @@
+package org.example.tool;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+final class ExternalClassification {
+	static final byte FIRST = 1;
+	static final byte ONLY = 2;
+
+	private final byte[] leftFlags;
+	private final byte[] rightFlags;
+	private final int leftOnlyCount;
+	private final int rightOnlyCount;
+	private final List<Run> modifiedRuns;
+
+	private ExternalClassification(byte[] leftFlags, byte[] rightFlags, int leftOnlyCount, int rightOnlyCount,
+			List<Run> modifiedRuns) {
+		this.leftFlags = leftFlags;
+		this.rightFlags = rightFlags;
+		this.leftOnlyCount = leftOnlyCount;
+		this.rightOnlyCount = rightOnlyCount;
+		this.modifiedRuns = modifiedRuns;
+	}
+
+	// Modified pairs are found in key order but printed in left row order, so they are sorted in bounded runs in
+	// directory, like the key runs of a spilled sheet, and merged when read.
+	static ExternalClassification classify(SpilledSheet left, SpilledSheet right, Path directory,
+			long sortBufferBytes, RunControl control) throws Exception {
+		byte[] leftFlags = new byte[left.rowCount()];
+		byte[] rightFlags = new byte[right.rowCount()];
+		int leftOnly = 0;
+		int rightOnly = 0;
+		RunWriter modified = new RunWriter(directory, sortBufferBytes, control);
+		try (SpilledSheet.KeyCursor leftKeys = left.keys(); SpilledSheet.KeyCursor rightKeys = right.keys()) {
+			SpilledSheet.KeyRecord a = leftKeys.next();
+			SpilledSheet.KeyRecord b = rightKeys.next();
+			int steps = 0;
+			while (a != null || b != null) {
+				if ((++steps & 1023) == 0) {
+					control.checkCancelled();
+					control.addRows(1024);
+				}
+				int order = a == null ? 1 : b == null ? -1 : SpilledSheet.KeyRecord.compareKeys(a, b);
+				if (order < 0) {
+					leftFlags[a.row()] = FIRST | ONLY;
+					leftOnly++;
+					a = leftKeys.next();
+				} else if (order > 0) {
+					rightFlags[b.row()] = FIRST | ONLY;
+					rightOnly++;
+					b = rightKeys.next();
+				} else {
+					leftFlags[a.row()] = FIRST;
+					rightFlags[b.row()] = FIRST;
+					if (a.content() != b.content()) {
+						modified.add(new Modified(a, b));
+					}
+					a = leftKeys.next();
+					b = rightKeys.next();
+				}
+			}
+		}
+		return new ExternalClassification(leftFlags, rightFlags, leftOnly, rightOnly, modified.finish());
+	}
+
+	byte[] leftFlags() {
+		return leftFlags;
+	}
+
+	byte[] rightFlags() {
+		return rightFlags;
+	}
+
+	int leftOnlyCount() {
+		return leftOnlyCount;
+	}
+
+	int rightOnlyCount() {
+		return rightOnlyCount;
+	}
+
+	// Matched keys whose content hashes differ, in left row order.
+	ModifiedCursor modified() throws IOException {
+		ModifiedCursor cursor = new ModifiedCursor();
+		try {
+			for (Run run : modifiedRuns) {
+				RunReader reader = new RunReader(run);
+				if (reader.advance()) {
+					cursor.queue.add(reader);
+				} else {
+					reader.close();
+				}
+			}
+		} catch (IOException exception) {
+			cursor.close();
+			throw exception;
+		}
+		return cursor;
+	}
+
+	record Modified(SpilledSheet.KeyRecord left, SpilledSheet.KeyRecord right) {
+	}
+
+	static final class ModifiedCursor implements Closeable {
+		private final PriorityQueue<RunReader> queue =
+				new PriorityQueue<>(Comparator.comparingInt((RunReader reader) -> reader.current.left().row()));
+
+		Modified next() throws IOException {
+			RunReader reader = queue.poll();
+			if (reader == null) {
+				return null;
+			}
+			Modified pair = reader.current;
+			if (reader.advance()) {
+				queue.add(reader);
+			} else {
+				reader.close();
+			}
+			return pair;
+		}
+
+		@Override
+		public void close() throws IOException {
+			IOException failure = null;
+			for (RunReader reader : queue) {
+				try {
+					reader.close();
+				} catch (IOException exception) {
+					failure = exception;
+				}
+			}
+			queue.clear();
+			if (failure != null) {
+				throw failure;
+			}
+		}
+	}
+
+	private record Run(Path file, int records) {
+	}
+
+	private static final class RunWriter {
+		private final Path directory;
+		private final long sortBufferBytes;
+		private final RunControl control;
+		private final List<Modified> buffer = new ArrayList<>();
+		private final List<Run> runs = new ArrayList<>();
+		private long bufferBytes;
+
+		private RunWriter(Path directory, long sortBufferBytes, RunControl control) {
+			this.directory = directory;
+			this.sortBufferBytes = sortBufferBytes;
+			this.control = control;
+		}
+
+		private void add(Modified pair) throws IOException {
+			buffer.add(pair);
+			bufferBytes += pair.left().estimatedBytes() + pair.right().estimatedBytes();
+			if (bufferBytes >= sortBufferBytes) {
+				spillRun();
+			}
+		}
+
+		private List<Run> finish() throws IOException {
+			if (!buffer.isEmpty()) {
+				spillRun();
+			}
+			return List.copyOf(runs);
+		}
+
+		private void spillRun() throws IOException {
+			control.checkCancelled();
+			buffer.sort(Comparator.comparingInt(pair -> pair.left().row()));
+			Path file = directory.resolve("modified-" + runs.size() + ".bin");
+			try (DataOutputStream out = new DataOutputStream(
+					new BufferedOutputStream(Files.newOutputStream(file), SpilledSheet.BUFFER_SIZE))) {
+				for (Modified pair : buffer) {
+					pair.left().writeTo(out);
+					pair.right().writeTo(out);
+				}
+			}
+			runs.add(new Run(file, buffer.size()));
+			buffer.clear();
+			bufferBytes = 0;
+		}
+	}
+
+	private static final class RunReader implements Closeable {
+		private final DataInputStream in;
+		private int remaining;
+		private Modified current;
+
+		private RunReader(Run run) throws IOException {
+			in = new DataInputStream(
+					new BufferedInputStream(Files.newInputStream(run.file()), SpilledSheet.BUFFER_SIZE));
+			remaining = run.records();
+		}
+
+		private boolean advance() throws IOException {
+			if (remaining == 0) {
+				return false;
+			}
+			current = new Modified(SpilledSheet.KeyRecord.readFrom(in), SpilledSheet.KeyRecord.readFrom(in));
+			remaining--;
+			return true;
+		}
+
+		@Override
+		public void close() throws IOException {
+			in.close();
+		}
+	}
+}
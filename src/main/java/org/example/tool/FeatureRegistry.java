@@ -1,25 +1,49 @@
 package org.example.tool;
 
 import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Supplier;
 
+// Features are registered by name and only created when first looked up, so listing them at startup loads no
+// feature classes.
 public class FeatureRegistry {
 	private final Map<String, ToolFeature> features = new HashMap<>();
+	private final Map<String, Supplier<ToolFeature>> factories = new HashMap<>();
 
-	public void register(ToolFeature feature) {
-		features.put(feature.name(), feature);
+	public void register(String name, Supplier<ToolFeature> factory) {
+		factories.put(name, factory);
+		features.remove(name);
 	}
 
 	public ToolFeature get(String name) {
-		return features.get(name);
+		ToolFeature feature = features.get(name);
+		if (feature == null) {
+			feature = create(name);
+			if (feature != null) {
+				features.put(name, feature);
+			}
+		}
+		return feature;
+	}
+
+	public ToolFeature create(String name) {
+		Supplier<ToolFeature> factory = factories.get(name);
+		return factory == null ? null : factory.get();
+	}
+
+	public List<String> names() {
+		List<String> names = new ArrayList<>(factories.keySet());
+		names.sort(null);
+		return names;
 	}
 
 	public List<ToolFeature> list() {
-		List<ToolFeature> list = new ArrayList<>(features.values());
-		list.sort(Comparator.comparing(ToolFeature::name));
+		List<ToolFeature> list = new ArrayList<>();
+		for (String name : names()) {
+			list.add(get(name));
+		}
 		return list;
 	}
 }
@@ -0,0 +1,14 @@
+package org.example.tool;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+
+record FileIdentity(Path path, long size, long modifiedMillis) {
+	static FileIdentity of(Path path) throws IOException {
+		Path absolute = path.toAbsolutePath().normalize();
+		BasicFileAttributes attributes = Files.readAttributes(absolute, BasicFileAttributes.class);
+		return new FileIdentity(absolute, attributes.size(), attributes.lastModifiedTime().toMillis());
+	}
+}
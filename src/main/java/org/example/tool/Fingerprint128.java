@@ -0,0 +1,47 @@
+package org.example.tool;
+
+final class Fingerprint128 {
+	private static final long P1 = 0x9E3779B97F4A7C15L;
+	private static final long P2 = 0xC2B2AE3D27D4EB4FL;
+
+	private long h1;
+	private long h2;
+
+	Fingerprint128() {
+		reset();
+	}
+
+	void reset() {
+		h1 = 0x243F6A8885A308D3L;
+		h2 = 0x13198A2E03707344L;
+	}
+
+	void add(String value) {
+		long a = h1;
+		long b = h2;
+		for (int i = 0; i < value.length(); i++) {
+			char ch = value.charAt(i);
+			a = Long.rotateLeft((a ^ ch) * P1, 31);
+			b = Long.rotateLeft((b ^ ch) * P2, 29);
+		}
+		h1 = Long.rotateLeft((a ^ value.length()) * P2, 27);
+		h2 = Long.rotateLeft((b ^ ~value.length()) * P1, 33);
+	}
+
+	long hi() {
+		return mix(h1 ^ Long.rotateLeft(h2, 17));
+	}
+
+	long lo() {
+		return mix(h2 + h1 * P1);
+	}
+
+	private static long mix(long value) {
+		value ^= value >>> 33;
+		value *= 0xFF51AFD7ED558CCDL;
+		value ^= value >>> 33;
+		value *= 0xC4CEB9FE1A85EC53L;
+		value ^= value >>> 33;
+		return value;
+	}
+}
@@ -0,0 +1,153 @@
+package org.example.tool;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+// Pairs leftover left-only and right-only keys by edit-distance similarity. Blocking is a sorted neighbourhood:
+// all leftover keys are sorted twice, by text and by reversed text, and each left key is only compared with the
+// nearest right keys in either order. That keeps the work at O(n log n + n * window) while still catching an edit
+// anywhere in the key, since one of the two orders keeps the untouched prefix or suffix adjacent.
+final class FuzzyMatcher {
+	private static final int WINDOW = 8;
+	private static final int MAX_STEPS = 64;
+
+	private FuzzyMatcher() {
+	}
+
+	static KeyClassification match(KeyClassification exact, KeyIndex left, KeyIndex right, double threshold,
+			RunControl control) {
+		int[] leftRows = exact.leftOnlyRows();
+		int[] rightRows = exact.rightOnlyRows();
+		if (leftRows.length == 0 || rightRows.length == 0) {
+			return exact;
+		}
+
+		int total = leftRows.length + rightRows.length;
+		String[] keys = new String[total];
+		String[] reversed = new String[total];
+		for (int i = 0; i < total; i++) {
+			if ((i & 1023) == 0) {
+				control.checkCancelled();
+			}
+			keys[i] = i < leftRows.length ? left.keyText(leftRows[i]) : right.keyText(rightRows[i - leftRows.length]);
+			reversed[i] = new StringBuilder(keys[i]).reverse().toString();
+		}
+
+		List<Candidate> candidates = new ArrayList<>();
+		collectNeighbours(sortedOrder(keys), keys, leftRows.length, threshold, candidates, control);
+		collectNeighbours(sortedOrder(reversed), keys, leftRows.length, threshold, candidates, control);
+		candidates.sort(Comparator.comparingDouble(Candidate::similarity).reversed()
+				.thenComparingInt(Candidate::left)
+				.thenComparingInt(Candidate::right));
+
+		int[] matches = new int[leftRows.length];
+		Arrays.fill(matches, -1);
+		boolean[] taken = new boolean[rightRows.length];
+		for (Candidate candidate : candidates) {
+			if (matches[candidate.left()] < 0 && !taken[candidate.right()]) {
+				matches[candidate.left()] = rightRows[candidate.right()];
+				taken[candidate.right()] = true;
+			}
+		}
+		return exact.withMatches(matches);
+	}
+
+	private static Integer[] sortedOrder(String[] keys) {
+		Integer[] order = new Integer[keys.length];
+		for (int i = 0; i < order.length; i++) {
+			order[i] = i;
+		}
+		Arrays.sort(order, Comparator.comparing((Integer i) -> keys[i]));
+		return order;
+	}
+
+	private static void collectNeighbours(Integer[] order, String[] keys, int leftCount, double threshold,
+			List<Candidate> candidates, RunControl control) {
+		int[][] scratch = new int[2][0];
+		for (int position = 0; position < order.length; position++) {
+			if ((position & 1023) == 0) {
+				control.checkCancelled();
+			}
+			int l = order[position];
+			if (l >= leftCount) {
+				continue;
+			}
+			for (int direction = -1; direction <= 1; direction += 2) {
+				int found = 0;
+				for (int step = 1; step <= MAX_STEPS && found < WINDOW; step++) {
+					int neighbour = position + direction * step;
+					if (neighbour < 0 || neighbour >= order.length) {
+						break;
+					}
+					int r = order[neighbour];
+					if (r < leftCount) {
+						continue;
+					}
+					found++;
+					double similarity = similarity(keys[l], keys[r], threshold, scratch);
+					if (similarity >= threshold) {
+						candidates.add(new Candidate(l, r - leftCount, similarity));
+					}
+				}
+			}
+		}
+	}
+
+	// 1 - edit distance / longer length; returns 0 as soon as the threshold can no longer be reached. The two DP rows
+	// live in scratch so the neighbourhood scan does not allocate per comparison.
+	private static double similarity(String a, String b, double threshold, int[][] scratch) {
+		int longer = Math.max(a.length(), b.length());
+		if (longer == 0) {
+			return 1;
+		}
+		int maxDistance = (int) Math.floor((1 - threshold) * longer + 1e-9);
+		if (Math.abs(a.length() - b.length()) > maxDistance) {
+			return 0;
+		}
+		// Only cells within maxDistance of the diagonal can stay under the bound, so the rest are never computed.
+		int big = maxDistance + 1;
+		if (scratch[0].length <= b.length()) {
+			scratch[0] = new int[b.length() + 1];
+			scratch[1] = new int[b.length() + 1];
+		}
+		int[] previous = scratch[0];
+		int[] current = scratch[1];
+		for (int j = 0; j <= b.length(); j++) {
+			previous[j] = j <= maxDistance ? j : big;
+		}
+		for (int i = 1; i <= a.length(); i++) {
+			int from = Math.max(1, i - maxDistance);
+			int to = Math.min(b.length(), i + maxDistance);
+			current[0] = i <= maxDistance ? i : big;
+			if (from > 1) {
+				current[from - 1] = big;
+			}
+			int rowMin = current[0];
+			char ch = a.charAt(i - 1);
+			for (int j = from; j <= to; j++) {
+				int cost = ch == b.charAt(j - 1) ? 0 : 1;
+				int value = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+				current[j] = Math.min(value, big);
+				rowMin = Math.min(rowMin, current[j]);
+			}
+			if (to < b.length()) {
+				current[to + 1] = big;
+			}
+			if (rowMin > maxDistance) {
+				return 0;
+			}
+			int[] swap = previous;
+			previous = current;
+			current = swap;
+		}
+		if (previous[b.length()] > maxDistance) {
+			return 0;
+		}
+		return 1 - (double) previous[b.length()] / longer;
+	}
+
+	private record Candidate(int left, int right, double similarity) {
+	}
+}
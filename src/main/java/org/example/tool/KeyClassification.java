@@ -0,0 +1,140 @@
+package org.example.tool;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+public final class KeyClassification {
+	static final byte LEFT_ONLY = 1;
+	static final byte RIGHT_ONLY = 2;
+	static final byte BOTH = 3;
+
+	private final byte[] tags;
+	private final int[] leftRows;
+	private final int[] rightRows;
+	private final int leftCount;
+	private final int leftOnlyCount;
+	private final int rightOnlyCount;
+
+	private KeyClassification(byte[] tags, int[] leftRows, int[] rightRows, int leftCount, int leftOnlyCount,
+			int rightOnlyCount) {
+		this.tags = tags;
+		this.leftRows = leftRows;
+		this.rightRows = rightRows;
+		this.leftCount = leftCount;
+		this.leftOnlyCount = leftOnlyCount;
+		this.rightOnlyCount = rightOnlyCount;
+	}
+
+	public static KeyClassification classify(KeyIndex left, KeyIndex right, RunControl control) {
+		int capacity = left.size() + right.size();
+		byte[] tags = new byte[capacity];
+		int[] leftRows = new int[capacity];
+		int[] rightRows = new int[capacity];
+		boolean[] rightMatched = new boolean[right.size()];
+		int size = 0;
+		int leftOnly = 0;
+		for (int entry = 0; entry < left.size(); entry++) {
+			if ((entry & 1023) == 0) {
+				control.checkCancelled();
+			}
+			int match = right.find(left.hi(entry), left.lo(entry), left, left.rowAt(entry));
+			leftRows[size] = left.rowAt(entry);
+			if (match < 0) {
+				tags[size] = LEFT_ONLY;
+				rightRows[size] = -1;
+				leftOnly++;
+			} else {
+				tags[size] = BOTH;
+				rightRows[size] = right.rowAt(match);
+				rightMatched[match] = true;
+			}
+			size++;
+		}
+		int leftCount = size;
+		for (int entry = 0; entry < right.size(); entry++) {
+			if (!rightMatched[entry]) {
+				tags[size] = RIGHT_ONLY;
+				leftRows[size] = -1;
+				rightRows[size] = right.rowAt(entry);
+				size++;
+			}
+		}
+		return new KeyClassification(Arrays.copyOf(tags, size), Arrays.copyOf(leftRows, size),
+				Arrays.copyOf(rightRows, size), leftCount, leftOnly, size - leftCount);
+	}
+
+	// leftOnlyMatches is aligned with leftOnlyRows(); -1 keeps the row left-only, otherwise it names the matched right row.
+	KeyClassification withMatches(int[] leftOnlyMatches) {
+		byte[] newTags = tags.clone();
+		int[] newLeftRows = leftRows.clone();
+		int[] newRightRows = rightRows.clone();
+		BitSet matchedRight = new BitSet();
+		int leftOnly = leftOnlyCount;
+		int next = 0;
+		for (int entry = 0; entry < leftCount; entry++) {
+			if (tags[entry] != LEFT_ONLY) {
+				continue;
+			}
+			int match = leftOnlyMatches[next++];
+			if (match >= 0) {
+				newTags[entry] = BOTH;
+				newRightRows[entry] = match;
+				matchedRight.set(match);
+				leftOnly--;
+			}
+		}
+		int size = leftCount;
+		for (int entry = leftCount; entry < tags.length; entry++) {
+			if (!matchedRight.get(rightRows[entry])) {
+				newTags[size] = RIGHT_ONLY;
+				newLeftRows[size] = -1;
+				newRightRows[size] = rightRows[entry];
+				size++;
+			}
+		}
+		return new KeyClassification(Arrays.copyOf(newTags, size), Arrays.copyOf(newLeftRows, size),
+				Arrays.copyOf(newRightRows, size), leftCount, leftOnly, size - leftCount);
+	}
+
+	int leftOnlyCount() {
+		return leftOnlyCount;
+	}
+
+	int rightOnlyCount() {
+		return rightOnlyCount;
+	}
+
+	public int[] leftRows() {
+		return Arrays.copyOf(leftRows, leftCount);
+	}
+
+	public int[] leftOnlyRows() {
+		int[] rows = new int[leftOnlyCount];
+		int count = 0;
+		for (int entry = 0; entry < leftCount; entry++) {
+			if (tags[entry] == LEFT_ONLY) {
+				rows[count++] = leftRows[entry];
+			}
+		}
+		return rows;
+	}
+
+	// Pairs of left and right rows whose keys matched, in left row order: {leftRows, rightRows}.
+	public int[][] matchedRows() {
+		int[] left = new int[leftCount - leftOnlyCount];
+		int[] right = new int[left.length];
+		int count = 0;
+		for (int entry = 0; entry < leftCount; entry++) {
+			if (tags[entry] == BOTH) {
+				left[count] = leftRows[entry];
+				right[count] = rightRows[entry];
+				count++;
+			}
+		}
+		return new int[][] {left, right};
+	}
+
+	public int[] rightOnlyRows() {
+		return Arrays.copyOfRange(rightRows, leftCount, tags.length);
+	}
+}
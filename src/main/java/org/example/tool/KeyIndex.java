@@ -0,0 +1,162 @@
+package org.example.tool;
+
+import java.util.Arrays;
+
+public final class KeyIndex {
+	private final ParsedSheet sheet;
+	private final int[] keyColumns;
+	private final KeyNormalization normalization;
+	private final String[][] normalized;
+	private long[] his = new long[1024];
+	private long[] los = new long[1024];
+	private int[] rows = new int[1024];
+	private int[] slots = new int[2048];
+	private int size;
+
+	KeyIndex(ParsedSheet sheet, int[] keyColumns, KeyNormalization normalization) {
+		this.sheet = sheet;
+		this.keyColumns = keyColumns;
+		this.normalization = normalization;
+		normalized = new String[keyColumns.length][];
+		for (int key = 0; key < keyColumns.length; key++) {
+			if (!normalization.isIdentity(key)) {
+				normalized[key] = new String[sheet.distinctValues()];
+			}
+		}
+	}
+
+	// A row is skipped only when its key cells are empty as read; a value that normalizes to "" (a phone key of
+	// "N/A") still keys the row.
+	public static KeyIndex build(ParsedSheet sheet, int[] keyColumns, KeyNormalization normalization, RunControl control) {
+		KeyIndex index = new KeyIndex(sheet, keyColumns, normalization);
+		Fingerprint128 fingerprint = new Fingerprint128();
+		for (int row = 0; row < sheet.rowCount(); row++) {
+			if ((row & 1023) == 0) {
+				control.checkCancelled();
+			}
+			fingerprint.reset();
+			boolean allBlank = true;
+			for (int key = 0; key < keyColumns.length; key++) {
+				int column = keyColumns[key];
+				if (column >= 0 && !sheet.value(row, column).isEmpty()) {
+					allBlank = false;
+				}
+				fingerprint.add(index.keyValue(key, row));
+			}
+			if (!allBlank) {
+				index.addIfAbsent(fingerprint.hi(), fingerprint.lo(), row);
+			}
+		}
+		index.trimToSize();
+		return index;
+	}
+
+	ParsedSheet sheet() {
+		return sheet;
+	}
+
+	int size() {
+		return size;
+	}
+
+	int rowAt(int entry) {
+		return rows[entry];
+	}
+
+	long hi(int entry) {
+		return his[entry];
+	}
+
+	long lo(int entry) {
+		return los[entry];
+	}
+
+	int find(long hi, long lo, KeyIndex source, int sourceRow) {
+		int mask = slots.length - 1;
+		int slot = (int) (hi ^ (hi >>> 32)) & mask;
+		while (slots[slot] != 0) {
+			int entry = slots[slot] - 1;
+			if (his[entry] == hi && los[entry] == lo && sameKey(rows[entry], source, sourceRow)) {
+				return entry;
+			}
+			slot = (slot + 1) & mask;
+		}
+		return -1;
+	}
+
+	private void addIfAbsent(long hi, long lo, int row) {
+		if (find(hi, lo, this, row) >= 0) {
+			return;
+		}
+		if (size == rows.length) {
+			his = Arrays.copyOf(his, size * 2);
+			los = Arrays.copyOf(los, size * 2);
+			rows = Arrays.copyOf(rows, size * 2);
+		}
+		his[size] = hi;
+		los[size] = lo;
+		rows[size] = row;
+		size++;
+		insertSlot(size - 1);
+		if (size * 2 > slots.length) {
+			slots = new int[slots.length * 2];
+			for (int entry = 0; entry < size; entry++) {
+				insertSlot(entry);
+			}
+		}
+	}
+
+	private void insertSlot(int entry) {
+		int mask = slots.length - 1;
+		int slot = (int) (his[entry] ^ (his[entry] >>> 32)) & mask;
+		while (slots[slot] != 0) {
+			slot = (slot + 1) & mask;
+		}
+		slots[slot] = entry + 1;
+	}
+
+	private void trimToSize() {
+		his = Arrays.copyOf(his, size);
+		los = Arrays.copyOf(los, size);
+		rows = Arrays.copyOf(rows, size);
+	}
+
+	String keyText(int row) {
+		StringBuilder text = new StringBuilder();
+		for (int key = 0; key < keyColumns.length; key++) {
+			if (key > 0) {
+				text.append('\u001f');
+			}
+			text.append(keyValue(key, row));
+		}
+		return text.toString();
+	}
+
+	// Normalized values are cached per dictionary code, so each distinct cell is normalized once.
+	private String keyValue(int key, int row) {
+		int column = keyColumns[key];
+		if (column < 0) {
+			return "";
+		}
+		int code = sheet.code(row, column);
+		String[] cache = normalized[key];
+		if (cache == null) {
+			return sheet.dictionaryValue(code);
+		}
+		String value = cache[code];
+		if (value == null) {
+			value = normalization.apply(key, sheet.dictionaryValue(code));
+			cache[code] = value;
+		}
+		return value;
+	}
+
+	private boolean sameKey(int row, KeyIndex source, int sourceRow) {
+		for (int key = 0; key < keyColumns.length; key++) {
+			if (!keyValue(key, row).equals(source.keyValue(key, sourceRow))) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
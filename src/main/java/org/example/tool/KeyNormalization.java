@@ -0,0 +1,21 @@
+package org.example.tool;
+
+import java.util.Collections;
+import java.util.List;
+
+public record KeyNormalization(List<List<KeyNormalizer>> steps) {
+	public static KeyNormalization none(int keys) {
+		return new KeyNormalization(Collections.nCopies(keys, List.of()));
+	}
+
+	boolean isIdentity(int key) {
+		return steps.get(key).isEmpty();
+	}
+
+	String apply(int key, String value) {
+		for (KeyNormalizer normalizer : steps.get(key)) {
+			value = normalizer.apply(value);
+		}
+		return value;
+	}
+}
@@ -0,0 +1,93 @@
+package org.example.tool;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+public enum KeyNormalizer {
+	CASE("case"),
+	SPACE("space"),
+	PHONE("phone"),
+	EMAIL("email");
+
+	private final String label;
+
+	KeyNormalizer(String label) {
+		this.label = label;
+	}
+
+	public String label() {
+		return label;
+	}
+
+	String apply(String value) {
+		return switch (this) {
+			case CASE -> value.toUpperCase(Locale.ROOT).toLowerCase(Locale.ROOT);
+			case SPACE -> collapseWhitespace(value);
+			case PHONE -> digits(value);
+			case EMAIL -> email(value);
+		};
+	}
+
+	static KeyNormalizer fromLabel(String label) {
+		for (KeyNormalizer normalizer : values()) {
+			if (normalizer.label.equalsIgnoreCase(label.trim())) {
+				return normalizer;
+			}
+		}
+		return null;
+	}
+
+	// Returns null unless every comma-separated name is a known normalizer.
+	static List<KeyNormalizer> parseList(String text) {
+		List<KeyNormalizer> normalizers = new ArrayList<>();
+		for (String name : text.split(",")) {
+			KeyNormalizer normalizer = fromLabel(name);
+			if (normalizer == null) {
+				return null;
+			}
+			normalizers.add(normalizer);
+		}
+		return normalizers;
+	}
+
+	private static String collapseWhitespace(String value) {
+		StringBuilder builder = new StringBuilder(value.length());
+		boolean pendingSpace = false;
+		for (int i = 0; i < value.length(); i++) {
+			char ch = value.charAt(i);
+			if (Character.isWhitespace(ch) || Character.isSpaceChar(ch)) {
+				pendingSpace = builder.length() > 0;
+			} else {
+				if (pendingSpace) {
+					builder.append(' ');
+					pendingSpace = false;
+				}
+				builder.append(ch);
+			}
+		}
+		return builder.toString();
+	}
+
+	private static String digits(String value) {
+		StringBuilder builder = new StringBuilder(value.length());
+		for (int i = 0; i < value.length(); i++) {
+			char ch = value.charAt(i);
+			if (ch >= '0' && ch <= '9') {
+				builder.append(ch);
+			}
+		}
+		return builder.toString();
+	}
+
+	private static String email(String value) {
+		String email = collapseWhitespace(value).replace(" ", "");
+		if (email.regionMatches(true, 0, "mailto:", 0, 7)) {
+			email = email.substring(7);
+		}
+		if (email.startsWith("<") && email.endsWith(">") && email.length() > 1) {
+			email = email.substring(1, email.length() - 1);
+		}
+		return email.toLowerCase(Locale.ROOT);
+	}
+}
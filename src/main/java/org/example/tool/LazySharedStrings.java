@@ -0,0 +1,116 @@
+package org.example.tool;
+
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackagePart;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.usermodel.XSSFRelation;
+
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+class LazySharedStrings implements AutoCloseable {
+	private static final Pattern ESCAPE = Pattern.compile("_x([0-9A-Fa-f]{4})_");
+
+	private final List<String> strings = new ArrayList<>();
+	private final InputStream input;
+	private final XMLStreamReader reader;
+
+	LazySharedStrings(OPCPackage pkg) throws IOException, XMLStreamException {
+		List<PackagePart> parts = pkg.getPartsByContentType(XSSFRelation.SHARED_STRINGS.getContentType());
+		if (parts.isEmpty()) {
+			input = null;
+			reader = null;
+		} else {
+			input = parts.get(0).getInputStream();
+			reader = XMLHelper.newXMLInputFactory().createXMLStreamReader(input);
+		}
+	}
+
+	String get(int index) {
+		try {
+			while (strings.size() <= index && readNext()) {
+				// keep pulling until the requested entry is loaded
+			}
+		} catch (XMLStreamException exception) {
+			throw new IllegalStateException("Failed to read shared strings", exception);
+		}
+		if (index >= strings.size()) {
+			throw new IllegalArgumentException("Shared string index out of range: " + index);
+		}
+		return strings.get(index);
+	}
+
+	private boolean readNext() throws XMLStreamException {
+		if (reader == null) {
+			return false;
+		}
+		StringBuilder text = new StringBuilder();
+		boolean inItem = false;
+		boolean inText = false;
+		boolean inPhonetic = false;
+		while (reader.hasNext()) {
+			int event = reader.next();
+			if (event == XMLStreamConstants.START_ELEMENT) {
+				switch (reader.getLocalName()) {
+					case "si" -> inItem = true;
+					case "t" -> inText = inItem;
+					case "rPh" -> inPhonetic = true;
+					default -> {
+					}
+				}
+			} else if (event == XMLStreamConstants.END_ELEMENT) {
+				switch (reader.getLocalName()) {
+					case "si" -> {
+						strings.add(decode(text.toString()));
+						return true;
+					}
+					case "t" -> inText = false;
+					case "rPh" -> inPhonetic = false;
+					default -> {
+					}
+				}
+			} else if ((event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA)
+					&& inText && !inPhonetic) {
+				text.append(reader.getText());
+			}
+		}
+		return false;
+	}
+
+	// XSSFRichTextString.getString() without the XMLBeans round trip: resolves _xHHHH_ character escapes.
+	static String decode(String text) {
+		if (!text.contains("_x")) {
+			return text;
+		}
+		Matcher matcher = ESCAPE.matcher(text);
+		StringBuilder decoded = new StringBuilder(text.length());
+		int end = 0;
+		while (matcher.find()) {
+			decoded.append(text, end, matcher.start()).append((char) Integer.parseInt(matcher.group(1), 16));
+			end = matcher.end();
+		}
+		return end == 0 ? text : decoded.append(text, end, text.length()).toString();
+	}
+
+	@Override
+	public void close() throws IOException {
+		try {
+			if (reader != null) {
+				reader.close();
+			}
+		} catch (XMLStreamException exception) {
+			throw new IOException(exception);
+		} finally {
+			if (input != null) {
+				input.close();
+			}
+		}
+	}
+}
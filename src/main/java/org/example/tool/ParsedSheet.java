@@ -0,0 +1,183 @@
+package org.example.tool;
+
+import java.nio.IntBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public final class ParsedSheet {
+	private final String[] header;
+	private final StringDictionary dictionary;
+	private final int[][] columns;
+	private final IntBuffer[] mapped;
+	private final int rowCount;
+
+	private ParsedSheet(String[] header, StringDictionary dictionary, int[][] columns, int rowCount) {
+		this.header = header;
+		this.dictionary = dictionary;
+		this.columns = columns;
+		this.mapped = null;
+		this.rowCount = rowCount;
+	}
+
+	// A sheet whose codes stay in a mapped snapshot file (see SheetSnapshots) instead of heap arrays.
+	ParsedSheet(String[] header, StringDictionary dictionary, IntBuffer[] mapped, int rowCount) {
+		this.header = header;
+		this.dictionary = dictionary;
+		this.columns = null;
+		this.mapped = mapped;
+		this.rowCount = rowCount;
+	}
+
+	public static ParsedSheet read(Path path, String sheetName, RunControl control) throws Exception {
+		CompareEvents.SheetParse event = new CompareEvents.SheetParse();
+		event.begin();
+		Builder builder = new Builder(control);
+		TableSource.open(path, sheetName).read(builder);
+		ParsedSheet sheet = builder.build();
+		if (event.shouldCommit()) {
+			event.identify(path);
+			event.sheet = sheetName;
+			event.rows = sheet.rowCount;
+			event.columns = sheet.columnCount();
+			event.parsedBytes = sheet.estimatedBytes();
+			event.commit();
+		}
+		return sheet;
+	}
+
+	static ParsedSheet readHeader(Path path, String sheetName) throws Exception {
+		String[] header = TableSource.open(path, sheetName).readHeaderRow();
+		return new ParsedSheet(trimmed(header, header.length), new StringDictionary(), new int[0][], 0);
+	}
+
+	public List<String> headers() {
+		List<String> headers = new ArrayList<>();
+		for (String cell : header) {
+			if (cell != null) {
+				headers.add(cell);
+			}
+		}
+		return headers;
+	}
+
+	String[] headerCells() {
+		return header.clone();
+	}
+
+	public int rowCount() {
+		return rowCount;
+	}
+
+	int columnCount() {
+		return columns != null ? columns.length : mapped.length;
+	}
+
+	String value(int row, int column) {
+		return dictionary.get(code(row, column));
+	}
+
+	int code(int row, int column) {
+		if (columns != null) {
+			return column < columns.length ? columns[column][row] : 0;
+		}
+		return column < mapped.length ? mapped[column].get(row) : 0;
+	}
+
+	String dictionaryValue(int code) {
+		return dictionary.get(code);
+	}
+
+	int distinctValues() {
+		return dictionary.size();
+	}
+
+	public List<String> row(int row, int width) {
+		String[] values = new String[width];
+		for (int col = 0; col < width; col++) {
+			values[col] = value(row, col);
+		}
+		return Arrays.asList(values);
+	}
+
+	// A view of the given rows; cells are decoded when they are read.
+	SectionRows rows(int[] rows, int width) {
+		return new RowView(this, rows, width);
+	}
+
+	// Mapped codes live in the page cache, not on the heap.
+	long estimatedBytes() {
+		long codeBytes = columns != null ? 4L * columns.length * rowCount : 0;
+		return 64 + 16L * header.length + codeBytes + dictionary.estimatedBytes();
+	}
+
+	static String[] trimmed(String[] cells, int width) {
+		String[] copy = Arrays.copyOf(cells, width);
+		for (int col = 0; col < width; col++) {
+			if (copy[col] != null) {
+				copy[col] = copy[col].trim();
+			}
+		}
+		return copy;
+	}
+
+	private static class Builder implements SheetRowHandler {
+		private final RunControl control;
+		private final StringDictionary dictionary = new StringDictionary();
+		private String[] header = new String[0];
+		private int[][] columns = new int[0][];
+		private int rowCount;
+		private int rowsSeen;
+
+		private Builder(RunControl control) {
+			this.control = control;
+		}
+
+		@Override
+		public void row(int rowIndex, String[] cells, int width) {
+			control.checkCancelled();
+			if ((++rowsSeen & 1023) == 0) {
+				control.addRows(1024);
+			}
+			if (rowIndex == 0) {
+				header = trimmed(cells, width);
+				columns = new int[width][1024];
+				return;
+			}
+			if (columns.length == 0) {
+				return;
+			}
+			if (rowCount == columns[0].length) {
+				for (int col = 0; col < columns.length; col++) {
+					columns[col] = Arrays.copyOf(columns[col], rowCount * 2);
+				}
+			}
+			for (int col = 0; col < columns.length; col++) {
+				String value = col < width ? cells[col] : null;
+				columns[col][rowCount] = value == null ? 0 : dictionary.add(value.trim());
+			}
+			rowCount++;
+		}
+
+		private ParsedSheet build() {
+			for (int col = 0; col < columns.length; col++) {
+				columns[col] = Arrays.copyOf(columns[col], rowCount);
+			}
+			dictionary.freeze();
+			return new ParsedSheet(header, dictionary, columns, rowCount);
+		}
+	}
+
+	private record RowView(ParsedSheet sheet, int[] rows, int width) implements SectionRows {
+		@Override
+		public int size() {
+			return rows.length;
+		}
+
+		@Override
+		public String value(int row, int column) {
+			return column < width ? sheet.value(rows[row], column) : "";
+		}
+	}
+}
@@ -0,0 +1,19 @@
+package org.example.tool;
+
+import java.io.IOException;
+import java.util.List;
+
+public interface RowSink {
+	void startSection(String label, List<String> headers) throws IOException;
+
+	void row(List<String> values) throws IOException;
+
+	// A sink that keeps whole sections can take the rows as a view instead of copying them one by one. It returns
+	// false to get row() calls instead.
+	default boolean rows(SectionRows rows) throws IOException {
+		return false;
+	}
+
+	default void endSection() throws IOException {
+	}
+}
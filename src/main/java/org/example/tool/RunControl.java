@@ -0,0 +1,42 @@
+package org.example.tool;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class RunControl {
+	private final AtomicLong rows = new AtomicLong();
+	private volatile boolean cancelled;
+	private volatile String phase = "";
+
+	public void cancel() {
+		cancelled = true;
+	}
+
+	public boolean isCancelled() {
+		return cancelled;
+	}
+
+	public void checkCancelled() {
+		if (cancelled || Thread.currentThread().isInterrupted()) {
+			throw new CancellationException("Run cancelled");
+		}
+	}
+
+	public void startPhase(String phase) {
+		checkCancelled();
+		this.phase = phase;
+		rows.set(0);
+	}
+
+	public void addRows(long count) {
+		rows.addAndGet(count);
+	}
+
+	public String phase() {
+		return phase;
+	}
+
+	public long rows() {
+		return rows.get();
+	}
+}
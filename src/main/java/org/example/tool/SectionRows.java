@@ -0,0 +1,8 @@
+package org.example.tool;
+
+// The rows of an output section, left where the compare already holds them and read one cell at a time.
+public interface SectionRows {
+	int size();
+
+	String value(int row, int column);
+}
@@ -0,0 +1,212 @@
+package org.example.tool;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+final class SheetCache {
+	private static final SheetCache SHARED =
+			new SheetCache(Runtime.getRuntime().maxMemory() / 4, SheetSnapshots.fromSystemProperties());
+
+	private final long maxBytes;
+	private final SheetSnapshots snapshots;
+	private final LinkedHashMap<Key, ParsedSheet> entries = new LinkedHashMap<>(16, 0.75f, true);
+	private final Map<Key, CompletableFuture<ParsedSheet>> loading = new HashMap<>();
+	private final List<Consumer<ParsedSheet>> evictionListeners = new CopyOnWriteArrayList<>();
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+	private long currentBytes;
+
+	SheetCache(long maxBytes) {
+		this(maxBytes, null);
+	}
+
+	SheetCache(long maxBytes, SheetSnapshots snapshots) {
+		this.maxBytes = maxBytes;
+		this.snapshots = snapshots;
+	}
+
+	static SheetCache shared() {
+		return SHARED;
+	}
+
+	ParsedSheet load(Path path, String sheetName, RunControl control) throws Exception {
+		Key key = new Key(FileIdentity.of(path), normalize(sheetName), false);
+		while (true) {
+			CompletableFuture<ParsedSheet> pending;
+			boolean owner = false;
+			synchronized (this) {
+				ParsedSheet cached = entries.get(key);
+				if (cached != null) {
+					hits.incrementAndGet();
+					return cached;
+				}
+				pending = loading.get(key);
+				if (pending == null) {
+					pending = new CompletableFuture<>();
+					loading.put(key, pending);
+					owner = true;
+				}
+			}
+			if (owner) {
+				misses.incrementAndGet();
+				return readAndPublish(key, path, sheetName, control, pending);
+			}
+			ParsedSheet shared = await(pending, control);
+			if (shared != null) {
+				hits.incrementAndGet();
+				return shared;
+			}
+		}
+	}
+
+	private ParsedSheet readAndPublish(Key key, Path path, String sheetName, RunControl control,
+			CompletableFuture<ParsedSheet> pending) throws Exception {
+		try {
+			ParsedSheet sheet = snapshots == null
+					? ParsedSheet.read(path, sheetName, control)
+					: snapshots.read(key.file(), sheetName, control);
+			put(key, sheet);
+			pending.complete(sheet);
+			return sheet;
+		} catch (Throwable failure) {
+			pending.completeExceptionally(failure);
+			throw failure;
+		} finally {
+			synchronized (this) {
+				loading.remove(key, pending);
+			}
+		}
+	}
+
+	// Returns null when the loading run was cancelled, so the caller retries with its own read.
+	private static ParsedSheet await(CompletableFuture<ParsedSheet> pending, RunControl control) throws Exception {
+		while (true) {
+			control.checkCancelled();
+			try {
+				return pending.get(100, TimeUnit.MILLISECONDS);
+			} catch (TimeoutException ignored) {
+				// poll cancellation again
+			} catch (CancellationException cancelled) {
+				return null;
+			} catch (ExecutionException exception) {
+				Throwable cause = exception.getCause();
+				if (cause instanceof Exception failure) {
+					throw failure;
+				}
+				throw (Error) cause;
+			}
+		}
+	}
+
+	ParsedSheet loadHeader(Path path, String sheetName) throws Exception {
+		Key full = new Key(FileIdentity.of(path), normalize(sheetName), false);
+		ParsedSheet cached = get(full);
+		if (cached == null) {
+			cached = get(new Key(full.file(), full.sheetName(), true));
+		}
+		if (cached != null) {
+			hits.incrementAndGet();
+			return cached;
+		}
+		misses.incrementAndGet();
+		ParsedSheet sheet = ParsedSheet.readHeader(path, sheetName);
+		put(new Key(full.file(), full.sheetName(), true), sheet);
+		return sheet;
+	}
+
+	// Called with every sheet that leaves the cache, outside the cache's lock.
+	void addEvictionListener(Consumer<ParsedSheet> listener) {
+		evictionListeners.add(listener);
+	}
+
+	synchronized boolean holds(ParsedSheet sheet) {
+		return entries.containsValue(sheet);
+	}
+
+	long hits() {
+		return hits.get();
+	}
+
+	long misses() {
+		return misses.get();
+	}
+
+	synchronized long sizeBytes() {
+		return currentBytes;
+	}
+
+	void clear() {
+		List<ParsedSheet> evicted;
+		synchronized (this) {
+			evicted = new ArrayList<>(entries.values());
+			entries.clear();
+			currentBytes = 0;
+		}
+		notifyEvicted(evicted);
+	}
+
+	private synchronized ParsedSheet get(Key key) {
+		return entries.get(key);
+	}
+
+	private void put(Key key, ParsedSheet sheet) {
+		List<ParsedSheet> evicted = new ArrayList<>();
+		synchronized (this) {
+			long bytes = sheet.estimatedBytes();
+			if (bytes > maxBytes) {
+				return;
+			}
+			ParsedSheet previous = entries.put(key, sheet);
+			if (previous != null) {
+				currentBytes -= previous.estimatedBytes();
+				if (previous != sheet) {
+					evicted.add(previous);
+				}
+			}
+			currentBytes += bytes;
+			Iterator<Map.Entry<Key, ParsedSheet>> iterator = entries.entrySet().iterator();
+			while (currentBytes > maxBytes && iterator.hasNext()) {
+				Map.Entry<Key, ParsedSheet> eldest = iterator.next();
+				if (eldest.getKey().equals(key)) {
+					continue;
+				}
+				currentBytes -= eldest.getValue().estimatedBytes();
+				evicted.add(eldest.getValue());
+				iterator.remove();
+			}
+		}
+		notifyEvicted(evicted);
+	}
+
+	private void notifyEvicted(List<ParsedSheet> evicted) {
+		for (ParsedSheet sheet : evicted) {
+			for (Consumer<ParsedSheet> listener : evictionListeners) {
+				listener.accept(sheet);
+			}
+		}
+	}
+
+	static String normalize(String sheetName) {
+		if (sheetName == null || sheetName.isBlank()) {
+			return null;
+		}
+		return sheetName.toLowerCase(Locale.ROOT);
+	}
+
+	private record Key(FileIdentity file, String sheetName, boolean headerOnly) {
+	}
+}
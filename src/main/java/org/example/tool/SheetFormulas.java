@@ -0,0 +1,113 @@
+package org.example.tool;
+
+import org.apache.poi.ss.SpreadsheetVersion;
+import org.apache.poi.ss.formula.FormulaParser;
+import org.apache.poi.ss.formula.FormulaRenderer;
+import org.apache.poi.ss.formula.FormulaType;
+import org.apache.poi.ss.formula.SharedFormula;
+import org.apache.poi.ss.formula.ptg.Ptg;
+import org.apache.poi.ss.util.CellRangeAddress;
+import org.apache.poi.xssf.usermodel.XSSFEvaluationWorkbook;
+import org.apache.poi.xssf.usermodel.XSSFName;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Formula text of cells whose <f> element does not hold it, as XSSFCell.getCellFormula returns it: cells of a shared
+// formula get the master's formula with relative references shifted, cells inside an array formula's range get the
+// array formula. Parsing needs the workbook's sheet and defined names; they are copied into an empty XSSFWorkbook,
+// which is only built once a sheet has a shared formula.
+final class SheetFormulas {
+	private final List<String> sheetNames;
+	private final List<DefinedName> definedNames;
+	private final int sheetIndex;
+	private final Map<String, Shared> shared = new HashMap<>();
+	private final List<Array> arrays = new ArrayList<>();
+	private XSSFEvaluationWorkbook workbook;
+
+	SheetFormulas(List<String> sheetNames, List<DefinedName> definedNames, int sheetIndex) {
+		this.sheetNames = sheetNames;
+		this.definedNames = definedNames;
+		this.sheetIndex = sheetIndex;
+	}
+
+	// ref is only set on the master cell, which comes first in the sheet.
+	String shared(String index, String ref, String formula, int row, int column) {
+		Shared group = shared.get(index);
+		if (ref != null && !formula.isEmpty()) {
+			CellRangeAddress range = CellRangeAddress.valueOf(ref);
+			group = new Shared(parse(formula, row), formula, range.getFirstRow(), range.getFirstColumn());
+			shared.put(index, group);
+		}
+		if (group == null) {
+			return formula;
+		}
+		if (group.ptgs == null) {
+			// POI cannot parse it either; the unshifted master formula is the closest we get
+			return group.formula;
+		}
+		SharedFormula shifter = new SharedFormula(SpreadsheetVersion.EXCEL2007);
+		Ptg[] shifted = shifter.convertSharedFormulas(group.ptgs, row - group.firstRow, column - group.firstColumn);
+		return FormulaRenderer.toFormulaString(workbook, shifted);
+	}
+
+	void array(String ref, String formula) {
+		arrays.add(new Array(CellRangeAddress.valueOf(ref), formula));
+	}
+
+	String arrayFormula(int row, int column) {
+		for (Array array : arrays) {
+			if (array.range.isInRange(row, column)) {
+				return array.formula;
+			}
+		}
+		return null;
+	}
+
+	private Ptg[] parse(String formula, int row) {
+		try {
+			return FormulaParser.parse(formula, workbook(), FormulaType.CELL, sheetIndex, row);
+		} catch (RuntimeException exception) {
+			return null;
+		}
+	}
+
+	private XSSFEvaluationWorkbook workbook() {
+		if (workbook == null) {
+			XSSFWorkbook names = new XSSFWorkbook();
+			for (int i = 0; i < sheetNames.size(); i++) {
+				try {
+					names.createSheet(sheetNames.get(i));
+				} catch (IllegalArgumentException exception) {
+					names.createSheet("Sheet " + (i + 1));
+				}
+			}
+			for (DefinedName definedName : definedNames) {
+				XSSFName name = names.createName();
+				try {
+					if (definedName.sheetIndex >= 0) {
+						name.setSheetIndex(definedName.sheetIndex);
+					}
+					name.setNameName(definedName.name);
+					name.setRefersToFormula(definedName.formula);
+				} catch (RuntimeException exception) {
+					names.removeName(name);
+				}
+			}
+			workbook = XSSFEvaluationWorkbook.create(names);
+		}
+		return workbook;
+	}
+
+	record DefinedName(String name, int sheetIndex, String formula) {
+	}
+
+	private record Shared(Ptg[] ptgs, String formula, int firstRow, int firstColumn) {
+	}
+
+	private record Array(CellRangeAddress range, String formula) {
+	}
+}
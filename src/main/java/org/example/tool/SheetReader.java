@@ -0,0 +1,363 @@
+package org.example.tool;
+
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.poifs.filesystem.FileMagic;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.ss.usermodel.WorkbookFactory;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.model.StylesTable;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+class SheetReader {
+	public void read(Path path, String sheetName, SheetRowHandler handler) throws Exception {
+		if (sheetName != null && sheetName.isBlank()) {
+			sheetName = null;
+		}
+		if (FileMagic.valueOf(path.toFile()) == FileMagic.OOXML) {
+			readXlsx(path, sheetName, handler);
+		} else {
+			readWorkbook(path, sheetName, handler);
+		}
+	}
+
+	public String[] readHeaderRow(Path path, String sheetName) throws Exception {
+		if (sheetName != null && sheetName.isBlank()) {
+			sheetName = null;
+		}
+		String[][] header = {new String[0]};
+		SheetRowHandler handler = (rowIndex, cells, width) -> {
+			if (rowIndex == 0) {
+				header[0] = Arrays.copyOf(cells, width);
+			}
+			throw new StopParsing();
+		};
+		try {
+			if (FileMagic.valueOf(path.toFile()) == FileMagic.OOXML) {
+				readXlsx(path, sheetName, handler);
+			} else {
+				readWorkbook(path, sheetName, handler);
+			}
+		} catch (StopParsing ignored) {
+			// first row reached
+		}
+		return header[0];
+	}
+
+	// Shared strings are pulled only as far as the sheet refers to them, so a header scan stops early.
+	private void readXlsx(Path path, String sheetName, SheetRowHandler handler) throws Exception {
+		CompareEvents.WorkbookOpen event = new CompareEvents.WorkbookOpen();
+		event.begin();
+		try (OPCPackage pkg = OPCPackage.open(path.toFile(), PackageAccess.READ);
+				 LazySharedStrings strings = new LazySharedStrings(pkg)) {
+			XSSFReader reader = new XSSFReader(pkg);
+			StylesTable styles = reader.getStylesTable();
+			WorkbookProperties workbook;
+			try (InputStream data = reader.getWorkbookData()) {
+				workbook = readWorkbookProperties(data);
+			}
+			XSSFReader.SheetIterator sheets = (XSSFReader.SheetIterator) reader.getSheetsData();
+			commitOpen(event, path, sheetName);
+			for (int sheetIndex = 0; sheets.hasNext(); sheetIndex++) {
+				try (InputStream sheet = sheets.next()) {
+					if (sheetName == null || sheetName.equalsIgnoreCase(sheets.getSheetName())) {
+						XMLReader parser = XMLHelper.newXMLReader();
+						SheetFormulas formulas = new SheetFormulas(workbook.sheetNames, workbook.definedNames, sheetIndex);
+						parser.setContentHandler(new SheetHandler(strings, new CellFormats(styles, workbook.date1904),
+								formulas, handler));
+						try {
+							parser.parse(new InputSource(sheet));
+						} catch (SAXException exception) {
+							if (exception.getException() != null) {
+								throw exception.getException();
+							}
+							throw exception;
+						}
+						return;
+					}
+				}
+			}
+			throw new IllegalArgumentException("Sheet not found: " + sheetName);
+		}
+	}
+
+	private static void commitOpen(CompareEvents.WorkbookOpen event, Path path, String sheetName) {
+		if (event.shouldCommit()) {
+			event.identify(path);
+			event.sheet = sheetName;
+			event.commit();
+		}
+	}
+
+	private void readWorkbook(Path path, String sheetName, SheetRowHandler handler) throws Exception {
+		CompareEvents.WorkbookOpen event = new CompareEvents.WorkbookOpen();
+		event.begin();
+		try (InputStream input = new FileInputStream(path.toFile());
+				 Workbook workbook = WorkbookFactory.create(input)) {
+			commitOpen(event, path, sheetName);
+			Sheet sheet = sheetName == null ? workbook.getSheetAt(0) : workbook.getSheet(sheetName);
+			if (sheet == null) {
+				throw new IllegalArgumentException("Sheet not found: " + sheetName);
+			}
+			DataFormatter formatter = new DataFormatter();
+			String[] cells = new String[16];
+			int lastRow = sheet.getLastRowNum();
+			for (int i = 0; i <= lastRow; i++) {
+				Row row = sheet.getRow(i);
+				if (row == null) {
+					continue;
+				}
+				int width = Math.max(0, row.getLastCellNum());
+				if (cells.length < width) {
+					cells = new String[width];
+				} else {
+					Arrays.fill(cells, 0, width, null);
+				}
+				for (Cell cell : row) {
+					CellType type = cell.getCellType();
+					cells[cell.getColumnIndex()] = type == CellType.STRING ? cell.getStringCellValue()
+							: type == CellType.BLANK ? "" : formatter.formatCellValue(cell);
+				}
+				handler.row(i, cells, width);
+			}
+		}
+	}
+
+	private WorkbookProperties readWorkbookProperties(InputStream workbook) throws Exception {
+		boolean[] date1904 = new boolean[1];
+		List<String> sheetNames = new ArrayList<>();
+		List<SheetFormulas.DefinedName> definedNames = new ArrayList<>();
+		XMLReader parser = XMLHelper.newXMLReader();
+		parser.setContentHandler(new DefaultHandler() {
+			private final StringBuilder text = new StringBuilder();
+			private String name;
+			private int nameSheet;
+
+			@Override
+			public void startElement(String uri, String localName, String qName, Attributes attributes) {
+				switch (localName) {
+					case "workbookPr" -> {
+						String value = attributes.getValue("date1904");
+						date1904[0] = "1".equals(value) || "true".equalsIgnoreCase(value);
+					}
+					case "sheet" -> sheetNames.add(attributes.getValue("name"));
+					case "definedName" -> {
+						String sheet = attributes.getValue("localSheetId");
+						name = attributes.getValue("name");
+						nameSheet = sheet == null ? -1 : Integer.parseInt(sheet);
+						text.setLength(0);
+					}
+					default -> {
+					}
+				}
+			}
+
+			@Override
+			public void endElement(String uri, String localName, String qName) {
+				if ("definedName".equals(localName) && name != null) {
+					definedNames.add(new SheetFormulas.DefinedName(name, nameSheet, text.toString()));
+					name = null;
+				}
+			}
+
+			@Override
+			public void characters(char[] ch, int start, int length) {
+				if (name != null) {
+					text.append(ch, start, length);
+				}
+			}
+		});
+		parser.parse(new InputSource(workbook));
+		return new WorkbookProperties(date1904[0], sheetNames, definedNames);
+	}
+
+	private static int columnIndex(String reference) {
+		int column = 0;
+		for (int i = 0; i < reference.length(); i++) {
+			char ch = reference.charAt(i);
+			if (ch < 'A' || ch > 'Z') {
+				break;
+			}
+			column = column * 26 + (ch - 'A' + 1);
+		}
+		return column - 1;
+	}
+
+	private record WorkbookProperties(boolean date1904, List<String> sheetNames,
+			List<SheetFormulas.DefinedName> definedNames) {
+	}
+
+	private static class SheetHandler extends DefaultHandler {
+		private final LazySharedStrings strings;
+		private final CellFormats formats;
+		private final SheetFormulas formulas;
+		private final SheetRowHandler handler;
+		private String[] cells = new String[16];
+		private int width;
+		private final StringBuilder value = new StringBuilder();
+		private final StringBuilder formula = new StringBuilder();
+		private int rowIndex = -1;
+		private int columnIndex = -1;
+		private String cellType;
+		private String cellStyle;
+		private String formulaType;
+		private String formulaRef;
+		private String sharedIndex;
+		private boolean inValue;
+		private boolean inFormula;
+		private boolean inInlineString;
+		private boolean inPhonetic;
+		private boolean hasValue;
+		private boolean hasFormula;
+
+		private SheetHandler(LazySharedStrings strings, CellFormats formats, SheetFormulas formulas,
+				SheetRowHandler handler) {
+			this.strings = strings;
+			this.formats = formats;
+			this.formulas = formulas;
+			this.handler = handler;
+		}
+
+		@Override
+		public void startElement(String uri, String localName, String qName, Attributes attributes) {
+			switch (localName) {
+				case "row" -> {
+					String reference = attributes.getValue("r");
+					rowIndex = reference == null ? rowIndex + 1 : Integer.parseInt(reference) - 1;
+					columnIndex = -1;
+					Arrays.fill(cells, 0, width, null);
+					width = 0;
+				}
+				case "c" -> {
+					String reference = attributes.getValue("r");
+					columnIndex = reference == null ? columnIndex + 1 : columnIndex(reference);
+					cellType = attributes.getValue("t");
+					cellStyle = attributes.getValue("s");
+					value.setLength(0);
+					formula.setLength(0);
+					hasValue = false;
+					hasFormula = false;
+					formulaType = null;
+					formulaRef = null;
+					sharedIndex = null;
+				}
+				case "v" -> {
+					inValue = true;
+					hasValue = true;
+				}
+				case "f" -> {
+					// a data table cell shows its value, like XSSFCell
+					formulaType = attributes.getValue("t");
+					if (!"dataTable".equals(formulaType)) {
+						inFormula = true;
+						hasFormula = true;
+						formulaRef = attributes.getValue("ref");
+						sharedIndex = attributes.getValue("si");
+					}
+				}
+				case "is" -> {
+					inInlineString = true;
+					hasValue = true;
+				}
+				case "rPh" -> inPhonetic = true;
+				default -> {
+				}
+			}
+		}
+
+		@Override
+		public void endElement(String uri, String localName, String qName) throws SAXException {
+			switch (localName) {
+				case "v" -> inValue = false;
+				case "f" -> inFormula = false;
+				case "is" -> inInlineString = false;
+				case "rPh" -> inPhonetic = false;
+				case "c" -> {
+					if (columnIndex >= cells.length) {
+						cells = Arrays.copyOf(cells, Math.max(cells.length * 2, columnIndex + 1));
+					}
+					cells[columnIndex] = cellValue();
+					width = Math.max(width, columnIndex + 1);
+				}
+				case "row" -> {
+					try {
+						handler.row(rowIndex, cells, width);
+					} catch (RuntimeException | SAXException exception) {
+						throw exception;
+					} catch (Exception exception) {
+						throw new SAXException(exception);
+					}
+				}
+				default -> {
+				}
+			}
+		}
+
+		@Override
+		public void characters(char[] ch, int start, int length) {
+			if (inFormula) {
+				formula.append(ch, start, length);
+			} else if (inValue || (inInlineString && !inPhonetic)) {
+				value.append(ch, start, length);
+			}
+		}
+
+		private String cellValue() {
+			String text = hasFormula ? formula.toString() : null;
+			if (hasFormula && "array".equals(formulaType) && formulaRef != null) {
+				formulas.array(formulaRef, text);
+			}
+			if (text == null || text.isEmpty()) {
+				String array = formulas.arrayFormula(rowIndex, columnIndex);
+				if (array != null) {
+					return array;
+				}
+			}
+			if (hasFormula) {
+				return "shared".equals(formulaType) && sharedIndex != null
+						? formulas.shared(sharedIndex, formulaRef, text, rowIndex, columnIndex) : text;
+			}
+			if (!hasValue) {
+				return "";
+			}
+			text = value.toString();
+			if (cellType == null || cellType.equals("n")) {
+				return text.isEmpty() ? "" : formats.format(cellStyle, Double.parseDouble(text));
+			}
+			return switch (cellType) {
+				case "s" -> strings.get(Integer.parseInt(text));
+				case "inlineStr" -> LazySharedStrings.decode(text);
+				case "b" -> "0".equals(text) ? "FALSE" : "TRUE";
+				default -> text;
+			};
+		}
+	}
+
+	private static class StopParsing extends SAXException {
+		private StopParsing() {
+			super("stop");
+		}
+
+		@Override
+		public synchronized Throwable fillInStackTrace() {
+			return this;
+		}
+	}
+}
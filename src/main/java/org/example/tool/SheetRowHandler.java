@@ -0,0 +1,5 @@
+package org.example.tool;
+
+public interface SheetRowHandler {
+	void row(int rowIndex, String[] cells, int width) throws Exception;
+}
@@ -0,0 +1,398 @@
+package org.example.tool;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.CRC32C;
+
+// Columnar copies of parsed workbook sheets in a local cache directory, so a workbook parsed in an earlier session is
+// memory-mapped instead of read again. A snapshot is keyed by a hash of the file content, its size, modification time
+// and the sheet name. One that fails the version, key or checksum check is deleted and the sheet parsed as usual.
+// The directory is kept under a size cap by evicting the least recently used snapshots.
+final class SheetSnapshots {
+	private static final int MAGIC = 0x53535449; // "ITSS" little-endian
+	private static final int VERSION = 1;
+	private static final int HEADER_BYTES = 64;
+	private static final int BUFFER_BYTES = 1 << 20;
+	private static final long HASH_WINDOW = 64L << 20;
+	private static final long STALE_TEMP_MILLIS = TimeUnit.HOURS.toMillis(1);
+	private static final long DEFAULT_MAX_MB = 1024;
+	private static final String SUFFIX = ".sheet";
+
+	private final Path directory;
+	private final long maxBytes;
+
+	SheetSnapshots(Path directory, long maxBytes) {
+		this.directory = directory;
+		this.maxBytes = maxBytes;
+	}
+
+	// -Dinternaltool.snapshots=<directory>|off and -Dinternaltool.snapshots.maxMb=<MB>; null when turned off.
+	static SheetSnapshots fromSystemProperties() {
+		String location = System.getProperty("internaltool.snapshots");
+		if (location != null && location.equalsIgnoreCase("off")) {
+			return null;
+		}
+		Path directory = location == null || location.isBlank() ? defaultDirectory() : Path.of(location);
+		long maxMb = DEFAULT_MAX_MB;
+		String limit = System.getProperty("internaltool.snapshots.maxMb");
+		if (limit != null) {
+			try {
+				maxMb = Long.parseLong(limit.trim());
+			} catch (NumberFormatException exception) {
+				throw new IllegalArgumentException("Invalid internaltool.snapshots.maxMb: " + limit);
+			}
+		}
+		return maxMb > 0 ? new SheetSnapshots(directory, maxMb << 20) : null;
+	}
+
+	private static Path defaultDirectory() {
+		String home = System.getProperty("user.home");
+		if (System.getProperty("os.name", "").toLowerCase(Locale.ROOT).contains("mac")) {
+			return Path.of(home, "Library", "Caches", "InternalTool", "sheets");
+		}
+		String cache = System.getenv("XDG_CACHE_HOME");
+		Path base = cache == null || cache.isBlank() ? Path.of(home, ".cache") : Path.of(cache);
+		return base.resolve("internaltool").resolve("sheets");
+	}
+
+	// Workbooks only: CSV files are mapped and parsed directly, which is about as fast as reading a snapshot.
+	ParsedSheet read(FileIdentity source, String sheetName, RunControl control) throws Exception {
+		if (!(TableSource.open(source.path(), sheetName) instanceof WorkbookTableSource)) {
+			return ParsedSheet.read(source.path(), sheetName, control);
+		}
+		Key key = key(source, SheetCache.normalize(sheetName), control);
+		ParsedSheet sheet = load(key);
+		if (sheet != null) {
+			return sheet;
+		}
+		sheet = ParsedSheet.read(source.path(), sheetName, control);
+		if (FileIdentity.of(source.path()).equals(source)) {
+			store(key, sheet);
+		}
+		return sheet;
+	}
+
+	private Key key(FileIdentity source, String sheetName, RunControl control) throws IOException {
+		long contentHash = contentHash(source.path(), control);
+		Fingerprint128 fingerprint = new Fingerprint128();
+		fingerprint.add(Long.toHexString(contentHash));
+		fingerprint.add(Long.toString(source.size()));
+		fingerprint.add(Long.toString(source.modifiedMillis()));
+		fingerprint.add(sheetName == null ? "" : sheetName);
+		String name = String.format("%016x%016x", fingerprint.hi(), fingerprint.lo()) + SUFFIX;
+		return new Key(directory.resolve(name), contentHash, source, sheetName == null ? "" : sheetName);
+	}
+
+	// CRC32C and CRC32 of the whole file; both are hardware-assisted, so an 80 MB workbook hashes in tens of ms.
+	private static long contentHash(Path path, RunControl control) throws IOException {
+		CRC32C high = new CRC32C();
+		CRC32 low = new CRC32();
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			long size = channel.size();
+			for (long start = 0; start < size; start += HASH_WINDOW) {
+				control.checkCancelled();
+				MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, start,
+						Math.min(HASH_WINDOW, size - start));
+				high.update(window.duplicate());
+				low.update(window);
+			}
+		}
+		return high.getValue() << 32 | low.getValue();
+	}
+
+	private ParsedSheet load(Key key) {
+		if (!Files.isRegularFile(key.file())) {
+			return null;
+		}
+		CompareEvents.SheetSnapshot event = new CompareEvents.SheetSnapshot();
+		event.begin();
+		ParsedSheet sheet;
+		try (FileChannel channel = FileChannel.open(key.file(), StandardOpenOption.READ)) {
+			long size = channel.size();
+			if (size < HEADER_BYTES || size > Integer.MAX_VALUE) {
+				throw new IOException("Snapshot size out of range: " + size);
+			}
+			ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size).order(ByteOrder.LITTLE_ENDIAN);
+			sheet = decode(buffer, key);
+		} catch (IOException | RuntimeException exception) {
+			delete(key.file());
+			return null;
+		}
+		try {
+			Files.setLastModifiedTime(key.file(), FileTime.fromMillis(System.currentTimeMillis()));
+		} catch (IOException ignored) {
+			// eviction order only
+		}
+		commitSnapshot(event, key, sheet, true);
+		return sheet;
+	}
+
+	private static ParsedSheet decode(ByteBuffer buffer, Key key) throws IOException {
+		if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+			throw new IOException("Not a version " + VERSION + " sheet snapshot");
+		}
+		if (buffer.getLong(8) != key.contentHash() || buffer.getLong(16) != key.source().size()
+				|| buffer.getLong(24) != key.source().modifiedMillis()) {
+			throw new IOException("Snapshot belongs to another file");
+		}
+		int rowCount = buffer.getInt(32);
+		int columnCount = buffer.getInt(36);
+		int headerCount = buffer.getInt(40);
+		int dictionarySize = buffer.getInt(44);
+		long payloadBytes = buffer.getLong(48);
+		if (payloadBytes != buffer.capacity() - HEADER_BYTES || rowCount < 0 || columnCount < 0 || headerCount < 0
+				|| dictionarySize < 1) {
+			throw new IOException("Snapshot header is inconsistent");
+		}
+		ByteBuffer payload = buffer.slice(HEADER_BYTES, (int) payloadBytes).order(ByteOrder.LITTLE_ENDIAN);
+		CRC32C crc = new CRC32C();
+		crc.update(payload.duplicate());
+		if ((int) crc.getValue() != buffer.getInt(56)) {
+			throw new IOException("Snapshot checksum mismatch");
+		}
+
+		if (!key.sheetName().equals(readString(payload))) {
+			throw new IOException("Snapshot belongs to another sheet");
+		}
+		String[] header = new String[headerCount];
+		for (int i = 0; i < headerCount; i++) {
+			header[i] = readString(payload);
+		}
+		String[] values = new String[dictionarySize];
+		for (int code = 0; code < dictionarySize; code++) {
+			values[code] = readString(payload);
+		}
+		int offset = (payload.position() + 3) & ~3;
+		long columnBytes = 4L * rowCount;
+		if (offset + columnBytes * columnCount != payload.capacity()) {
+			throw new IOException("Snapshot columns are truncated");
+		}
+		IntBuffer[] columns = new IntBuffer[columnCount];
+		for (int col = 0; col < columnCount; col++) {
+			columns[col] = payload.slice(offset + (int) (col * columnBytes), (int) columnBytes)
+					.order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+		}
+		return new ParsedSheet(header, StringDictionary.frozen(values), columns, rowCount);
+	}
+
+	private static String readString(ByteBuffer payload) {
+		int length = payload.getInt();
+		if (length < 0) {
+			return null;
+		}
+		byte[] bytes = new byte[length];
+		payload.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	// Best effort: a snapshot that cannot be written only costs the next launch a parse.
+	private void store(Key key, ParsedSheet sheet) {
+		if (HEADER_BYTES + sheet.estimatedBytes() > Integer.MAX_VALUE) {
+			return;
+		}
+		CompareEvents.SheetSnapshot event = new CompareEvents.SheetSnapshot();
+		event.begin();
+		Path temp = null;
+		try {
+			Files.createDirectories(directory);
+			temp = Files.createTempFile(directory, "snapshot", ".tmp");
+			try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+				write(channel, key, sheet);
+			}
+			try {
+				Files.move(temp, key.file(), StandardCopyOption.ATOMIC_MOVE);
+			} catch (AtomicMoveNotSupportedException exception) {
+				Files.move(temp, key.file(), StandardCopyOption.REPLACE_EXISTING);
+			}
+			temp = null;
+			commitSnapshot(event, key, sheet, false);
+			evict(key.file());
+		} catch (IOException ignored) {
+			// keep running without a snapshot
+		} finally {
+			if (temp != null) {
+				delete(temp);
+			}
+		}
+	}
+
+	private static void write(FileChannel channel, Key key, ParsedSheet sheet) throws IOException {
+		Output out = new Output(channel);
+		out.putString(key.sheetName());
+		String[] header = sheet.headerCells();
+		for (String cell : header) {
+			out.putString(cell);
+		}
+		int dictionarySize = sheet.distinctValues();
+		for (int code = 0; code < dictionarySize; code++) {
+			out.putString(sheet.dictionaryValue(code));
+		}
+		out.align();
+		int rowCount = sheet.rowCount();
+		for (int col = 0; col < sheet.columnCount(); col++) {
+			for (int row = 0; row < rowCount; row++) {
+				out.putInt(sheet.code(row, col));
+			}
+		}
+		long payloadBytes = out.finish();
+
+		ByteBuffer head = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+		head.putInt(MAGIC).putInt(VERSION)
+				.putLong(key.contentHash()).putLong(key.source().size()).putLong(key.source().modifiedMillis())
+				.putInt(rowCount).putInt(sheet.columnCount()).putInt(header.length).putInt(dictionarySize)
+				.putLong(payloadBytes).putInt((int) out.crc.getValue());
+		head.clear();
+		while (head.hasRemaining()) {
+			channel.write(head, head.position());
+		}
+	}
+
+	// Oldest first by last use (load touches the file), skipping the snapshot just written.
+	private void evict(Path keep) throws IOException {
+		List<Path> files;
+		try (Stream<Path> list = Files.list(directory)) {
+			files = list.toList();
+		}
+		List<Path> snapshots = new ArrayList<>();
+		long now = System.currentTimeMillis();
+		for (Path file : files) {
+			String name = file.getFileName().toString();
+			if (name.endsWith(SUFFIX)) {
+				snapshots.add(file);
+			} else if (name.endsWith(".tmp") && now - lastModified(file) > STALE_TEMP_MILLIS) {
+				delete(file);
+			}
+		}
+		snapshots.sort(Comparator.comparingLong(SheetSnapshots::lastModified));
+		long total = 0;
+		for (Path file : snapshots) {
+			total += size(file);
+		}
+		for (Path file : snapshots) {
+			if (total <= maxBytes) {
+				break;
+			}
+			if (!file.equals(keep)) {
+				total -= size(file);
+				delete(file);
+			}
+		}
+	}
+
+	private static long lastModified(Path file) {
+		try {
+			return Files.getLastModifiedTime(file).toMillis();
+		} catch (IOException exception) {
+			return 0;
+		}
+	}
+
+	private static long size(Path file) {
+		try {
+			return Files.size(file);
+		} catch (IOException exception) {
+			return 0;
+		}
+	}
+
+	private static void delete(Path file) {
+		try {
+			Files.deleteIfExists(file);
+		} catch (IOException ignored) {
+			// still mapped elsewhere (Windows); eviction retries later
+		}
+	}
+
+	private static void commitSnapshot(CompareEvents.SheetSnapshot event, Key key, ParsedSheet sheet, boolean loaded) {
+		if (event.shouldCommit()) {
+			event.identify(key.source().path());
+			event.sheet = key.sheetName();
+			event.rows = sheet.rowCount();
+			event.columns = sheet.columnCount();
+			event.snapshotBytes = size(key.file());
+			event.loaded = loaded;
+			event.commit();
+		}
+	}
+
+	// Payload writer: little-endian, buffered, with a running CRC32C of everything written.
+	private static final class Output {
+		private final FileChannel channel;
+		private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+		private final CRC32C crc = new CRC32C();
+		private long written;
+
+		private Output(FileChannel channel) {
+			this.channel = channel;
+		}
+
+		void putString(String value) throws IOException {
+			if (value == null) {
+				putInt(-1);
+				return;
+			}
+			byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+			putInt(bytes.length);
+			int offset = 0;
+			while (offset < bytes.length) {
+				if (!buffer.hasRemaining()) {
+					flush();
+				}
+				int length = Math.min(buffer.remaining(), bytes.length - offset);
+				buffer.put(bytes, offset, length);
+				offset += length;
+			}
+		}
+
+		void putInt(int value) throws IOException {
+			if (buffer.remaining() < 4) {
+				flush();
+			}
+			buffer.putInt(value);
+		}
+
+		void align() throws IOException {
+			while (((written + buffer.position()) & 3) != 0) {
+				if (!buffer.hasRemaining()) {
+					flush();
+				}
+				buffer.put((byte) 0);
+			}
+		}
+
+		long finish() throws IOException {
+			flush();
+			return written;
+		}
+
+		private void flush() throws IOException {
+			buffer.flip();
+			crc.update(buffer.duplicate());
+			while (buffer.hasRemaining()) {
+				written += channel.write(buffer, HEADER_BYTES + written);
+			}
+			buffer.clear();
+		}
+	}
+
+	private record Key(Path file, long contentHash, FileIdentity source, String sheetName) {
+	}
+}
@@ -0,0 +1,35 @@
+package org.example.tool;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+final class SpillDirectory implements AutoCloseable {
+	private final Path path;
+
+	private SpillDirectory(Path path) {
+		this.path = path;
+	}
+
+	static SpillDirectory create() throws IOException {
+		return new SpillDirectory(Files.createTempDirectory("internaltool-compare"));
+	}
+
+	Path path() {
+		return path;
+	}
+
+	@Override
+	public void close() throws IOException {
+		List<Path> files;
+		try (Stream<Path> walk = Files.walk(path)) {
+			files = walk.sorted(Comparator.reverseOrder()).toList();
+		}
+		for (Path file : files) {
+			Files.deleteIfExists(file);
+		}
+	}
+}
@@ -0,0 +1,431 @@
+package org.example.tool;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.Function;
+
+// Rows stream to a row file in sheet order; keys are sorted in bounded runs and merged on read.
+final class SpilledSheet {
+	static final int BUFFER_SIZE = 1 << 16;
+	private static final int RECORD_OVERHEAD = 64;
+
+	private final Path rowFile;
+	private final List<Run> runs;
+	private final int columnCount;
+	private final int rowCount;
+
+	private SpilledSheet(Path rowFile, List<Run> runs, int columnCount, int rowCount) {
+		this.rowFile = rowFile;
+		this.runs = runs;
+		this.columnCount = columnCount;
+		this.rowCount = rowCount;
+	}
+
+	// contentColumns may be empty; otherwise each key record also carries the raw key and content values of its row.
+	static SpilledSheet write(Path path, String sheetName, Function<String[], int[]> keyColumns,
+			KeyNormalization normalization, Function<String[], int[]> contentColumns, Path directory, String name,
+			long sortBufferBytes, RunControl control) throws Exception {
+		CompareEvents.SheetParse event = new CompareEvents.SheetParse();
+		event.begin();
+		try (Writer writer = new Writer(keyColumns, normalization, contentColumns, directory, name, sortBufferBytes,
+				control)) {
+			TableSource.open(path, sheetName).read(writer);
+			SpilledSheet sheet = writer.finish();
+			if (event.shouldCommit()) {
+				event.identify(path);
+				event.sheet = sheetName;
+				event.rows = sheet.rowCount;
+				event.columns = sheet.columnCount;
+				event.spilled = true;
+				event.commit();
+			}
+			return sheet;
+		}
+	}
+
+	int rowCount() {
+		return rowCount;
+	}
+
+	KeyCursor keys() throws IOException {
+		KeyCursor cursor = new KeyCursor();
+		try {
+			for (Run run : runs) {
+				RunReader reader = new RunReader(run);
+				if (reader.advance()) {
+					cursor.queue.add(reader);
+				} else {
+					reader.close();
+				}
+			}
+		} catch (IOException exception) {
+			cursor.close();
+			throw exception;
+		}
+		return cursor;
+	}
+
+	// Returns the number of rows written.
+	int writeRows(byte[] flags, byte mask, int width, RowSink sink, RunControl control) throws IOException {
+		int written = 0;
+		try (DataInputStream in = new DataInputStream(
+				new BufferedInputStream(Files.newInputStream(rowFile), BUFFER_SIZE))) {
+			byte[] bytes = new byte[256];
+			for (int row = 0; row < rowCount; row++) {
+				if ((row & 1023) == 1023) {
+					control.checkCancelled();
+					control.addRows(1024);
+				}
+				int length = readVarint(in);
+				if ((flags[row] & mask) == 0) {
+					in.skipNBytes(length);
+					continue;
+				}
+				if (bytes.length < length) {
+					bytes = new byte[Math.max(length, bytes.length * 2)];
+				}
+				in.readFully(bytes, 0, length);
+				String[] values = new String[width];
+				int position = 0;
+				for (int col = 0; col < width; col++) {
+					if (col >= columnCount) {
+						values[col] = "";
+						continue;
+					}
+					position = decodeString(bytes, position, values, col);
+				}
+				sink.row(Arrays.asList(values));
+				written++;
+			}
+		}
+		return written;
+	}
+
+	private static int decodeString(byte[] bytes, int position, String[] values, int index) {
+		int size = 0;
+		int shift = 0;
+		byte next;
+		do {
+			next = bytes[position++];
+			size |= (next & 0x7F) << shift;
+			shift += 7;
+		} while (next < 0);
+		values[index] = new String(bytes, position, size, StandardCharsets.UTF_8);
+		return position + size;
+	}
+
+	private static void writeVarint(DataOutput out, int value) throws IOException {
+		while ((value & ~0x7F) != 0) {
+			out.writeByte((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		out.writeByte(value);
+	}
+
+	private static int readVarint(DataInput in) throws IOException {
+		int value = 0;
+		int shift = 0;
+		byte next;
+		do {
+			next = in.readByte();
+			value |= (next & 0x7F) << shift;
+			shift += 7;
+		} while (next < 0);
+		return value;
+	}
+
+	record KeyRecord(long hi, long lo, int row, byte[] key, long content, byte[] detail)
+			implements Comparable<KeyRecord> {
+		static int compareKeys(KeyRecord a, KeyRecord b) {
+			int order = Long.compare(a.hi, b.hi);
+			if (order == 0) {
+				order = Long.compare(a.lo, b.lo);
+			}
+			return order != 0 ? order : Arrays.compare(a.key, b.key);
+		}
+
+		@Override
+		public int compareTo(KeyRecord other) {
+			int order = compareKeys(this, other);
+			return order != 0 ? order : Integer.compare(row, other.row);
+		}
+
+		// The raw key values followed by the content values, as listed by the writer's content columns.
+		String[] detailValues(int count) {
+			String[] values = new String[count];
+			int position = 0;
+			for (int i = 0; i < count; i++) {
+				position = decodeString(detail, position, values, i);
+			}
+			return values;
+		}
+
+		long estimatedBytes() {
+			return RECORD_OVERHEAD + key.length + detail.length;
+		}
+
+		void writeTo(DataOutput out) throws IOException {
+			out.writeLong(hi);
+			out.writeLong(lo);
+			out.writeInt(row);
+			writeVarint(out, key.length);
+			out.write(key);
+			out.writeLong(content);
+			writeVarint(out, detail.length);
+			out.write(detail);
+		}
+
+		static KeyRecord readFrom(DataInput in) throws IOException {
+			long hi = in.readLong();
+			long lo = in.readLong();
+			int row = in.readInt();
+			byte[] key = new byte[readVarint(in)];
+			in.readFully(key);
+			long content = in.readLong();
+			byte[] detail = new byte[readVarint(in)];
+			in.readFully(detail);
+			return new KeyRecord(hi, lo, row, key, content, detail);
+		}
+	}
+
+	// Yields one record per distinct key: the one with the lowest row, i.e. the first occurrence.
+	static final class KeyCursor implements Closeable {
+		private final PriorityQueue<RunReader> queue =
+				new PriorityQueue<>(Comparator.comparing((RunReader reader) -> reader.current));
+		private KeyRecord last;
+
+		KeyRecord next() throws IOException {
+			while (!queue.isEmpty()) {
+				RunReader reader = queue.poll();
+				KeyRecord record = reader.current;
+				if (reader.advance()) {
+					queue.add(reader);
+				} else {
+					reader.close();
+				}
+				if (last == null || KeyRecord.compareKeys(last, record) != 0) {
+					last = record;
+					return record;
+				}
+			}
+			return null;
+		}
+
+		@Override
+		public void close() throws IOException {
+			IOException failure = null;
+			for (RunReader reader : queue) {
+				try {
+					reader.close();
+				} catch (IOException exception) {
+					failure = exception;
+				}
+			}
+			queue.clear();
+			if (failure != null) {
+				throw failure;
+			}
+		}
+	}
+
+	private record Run(Path file, int records) {
+	}
+
+	private static final class RunReader implements Closeable {
+		private final DataInputStream in;
+		private int remaining;
+		private KeyRecord current;
+
+		private RunReader(Run run) throws IOException {
+			in = new DataInputStream(new BufferedInputStream(Files.newInputStream(run.file()), BUFFER_SIZE));
+			remaining = run.records();
+		}
+
+		private boolean advance() throws IOException {
+			if (remaining == 0) {
+				return false;
+			}
+			current = KeyRecord.readFrom(in);
+			remaining--;
+			return true;
+		}
+
+		@Override
+		public void close() throws IOException {
+			in.close();
+		}
+	}
+
+	private static final class Writer implements SheetRowHandler, Closeable {
+		private final Function<String[], int[]> keyColumnsForHeader;
+		private final KeyNormalization normalization;
+		private final Function<String[], int[]> contentColumnsForHeader;
+		private final Path directory;
+		private final String name;
+		private final long sortBufferBytes;
+		private final RunControl control;
+		private final Path rowFile;
+		private final DataOutputStream rows;
+		private final Encoder rowEncoder = new Encoder();
+		private final Encoder keyEncoder = new Encoder();
+		private final Encoder detailEncoder = new Encoder();
+		private final Fingerprint128 fingerprint = new Fingerprint128();
+		private final List<KeyRecord> buffer = new ArrayList<>();
+		private final List<Run> runs = new ArrayList<>();
+		private long bufferBytes;
+		private String[] header = new String[0];
+		private String[] values = new String[0];
+		private int[] keyColumns = new int[0];
+		private int[] contentColumns = new int[0];
+		private int rowCount;
+		private int rowsSeen;
+
+		private Writer(Function<String[], int[]> keyColumnsForHeader, KeyNormalization normalization,
+				Function<String[], int[]> contentColumnsForHeader, Path directory, String name, long sortBufferBytes,
+				RunControl control) throws IOException {
+			this.keyColumnsForHeader = keyColumnsForHeader;
+			this.normalization = normalization;
+			this.contentColumnsForHeader = contentColumnsForHeader;
+			this.directory = directory;
+			this.name = name;
+			this.sortBufferBytes = sortBufferBytes;
+			this.control = control;
+			rowFile = directory.resolve(name + "-rows.bin");
+			rows = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(rowFile), BUFFER_SIZE));
+		}
+
+		@Override
+		public void row(int rowIndex, String[] cells, int width) throws IOException {
+			control.checkCancelled();
+			if ((++rowsSeen & 1023) == 0) {
+				control.addRows(1024);
+			}
+			if (rowIndex == 0) {
+				header = ParsedSheet.trimmed(cells, width);
+				values = new String[header.length];
+				keyColumns = keyColumnsForHeader.apply(header.clone());
+				contentColumns = contentColumnsForHeader.apply(header.clone());
+				return;
+			}
+			if (header.length == 0) {
+				return;
+			}
+			rowEncoder.reset();
+			for (int col = 0; col < header.length; col++) {
+				String value = col < width ? cells[col] : null;
+				values[col] = value == null ? "" : value.trim();
+				rowEncoder.writeString(values[col]);
+			}
+			writeVarint(rows, rowEncoder.length);
+			rows.write(rowEncoder.bytes, 0, rowEncoder.length);
+
+			fingerprint.reset();
+			keyEncoder.reset();
+			boolean allBlank = true;
+			for (int key = 0; key < keyColumns.length; key++) {
+				int column = keyColumns[key];
+				if (column >= 0 && !values[column].isEmpty()) {
+					allBlank = false;
+				}
+				String value = column < 0 ? "" : normalization.apply(key, values[column]);
+				fingerprint.add(value);
+				keyEncoder.writeString(value);
+			}
+			if (!allBlank) {
+				byte[] key = Arrays.copyOf(keyEncoder.bytes, keyEncoder.length);
+				long hi = fingerprint.hi();
+				long lo = fingerprint.lo();
+				long content = 0;
+				byte[] detail = new byte[0];
+				if (contentColumns.length > 0) {
+					detailEncoder.reset();
+					for (int column : keyColumns) {
+						detailEncoder.writeString(column < 0 ? "" : values[column]);
+					}
+					for (int column : contentColumns) {
+						detailEncoder.writeString(column < 0 ? "" : values[column]);
+					}
+					detail = Arrays.copyOf(detailEncoder.bytes, detailEncoder.length);
+					content = ContentHash.of(values, contentColumns, fingerprint);
+				}
+				KeyRecord record = new KeyRecord(hi, lo, rowCount, key, content, detail);
+				buffer.add(record);
+				bufferBytes += record.estimatedBytes();
+				if (bufferBytes >= sortBufferBytes) {
+					spillRun();
+				}
+			}
+			rowCount++;
+		}
+
+		private SpilledSheet finish() throws IOException {
+			if (!buffer.isEmpty()) {
+				spillRun();
+			}
+			rows.close();
+			return new SpilledSheet(rowFile, List.copyOf(runs), header.length, rowCount);
+		}
+
+		private void spillRun() throws IOException {
+			control.checkCancelled();
+			buffer.sort(null);
+			Path file = directory.resolve(name + "-keys-" + runs.size() + ".bin");
+			try (DataOutputStream out = new DataOutputStream(
+					new BufferedOutputStream(Files.newOutputStream(file), BUFFER_SIZE))) {
+				for (KeyRecord record : buffer) {
+					record.writeTo(out);
+				}
+			}
+			runs.add(new Run(file, buffer.size()));
+			buffer.clear();
+			bufferBytes = 0;
+		}
+
+		@Override
+		public void close() throws IOException {
+			rows.close();
+		}
+	}
+
+	private static final class Encoder {
+		private byte[] bytes = new byte[256];
+		private int length;
+
+		private void reset() {
+			length = 0;
+		}
+
+		private void writeString(String value) {
+			byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+			ensure(5 + utf8.length);
+			int size = utf8.length;
+			while ((size & ~0x7F) != 0) {
+				bytes[length++] = (byte) ((size & 0x7F) | 0x80);
+				size >>>= 7;
+			}
+			bytes[length++] = (byte) size;
+			System.arraycopy(utf8, 0, bytes, length, utf8.length);
+			length += utf8.length;
+		}
+
+		private void ensure(int extra) {
+			if (length + extra > bytes.length) {
+				bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + extra));
+			}
+		}
+	}
+}
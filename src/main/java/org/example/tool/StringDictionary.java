@@ -0,0 +1,91 @@
+package org.example.tool;
+
+import java.util.Arrays;
+
+final class StringDictionary {
+	private String[] values = new String[256];
+	private int[] slots = new int[512];
+	private int size;
+	private long valueBytes;
+
+	StringDictionary() {
+		Arrays.fill(slots, -1);
+		add("");
+	}
+
+	private StringDictionary(String[] values) {
+		this.values = values;
+		this.slots = null;
+		this.size = values.length;
+		for (String value : values) {
+			valueBytes += 40 + value.length();
+		}
+	}
+
+	// Already frozen: the values are distinct and code 0 is "".
+	static StringDictionary frozen(String[] values) {
+		return new StringDictionary(values);
+	}
+
+	int add(String value) {
+		if (value == null) {
+			return 0;
+		}
+		int mask = slots.length - 1;
+		int slot = mix(value.hashCode()) & mask;
+		while (slots[slot] >= 0) {
+			int code = slots[slot];
+			if (values[code].equals(value)) {
+				return code;
+			}
+			slot = (slot + 1) & mask;
+		}
+		if (size == values.length) {
+			values = Arrays.copyOf(values, size * 2);
+		}
+		int code = size++;
+		values[code] = value;
+		valueBytes += 40 + value.length();
+		slots[slot] = code;
+		if (size * 2 > slots.length) {
+			rehash();
+		}
+		return code;
+	}
+
+	String get(int code) {
+		return values[code];
+	}
+
+	int size() {
+		return size;
+	}
+
+	void freeze() {
+		values = Arrays.copyOf(values, size);
+		slots = null;
+	}
+
+	long estimatedBytes() {
+		return 16 + 4L * values.length + (slots == null ? 0 : 4L * slots.length) + valueBytes;
+	}
+
+	private void rehash() {
+		int[] grown = new int[slots.length * 2];
+		Arrays.fill(grown, -1);
+		int mask = grown.length - 1;
+		for (int code = 0; code < size; code++) {
+			int slot = mix(values[code].hashCode()) & mask;
+			while (grown[slot] >= 0) {
+				slot = (slot + 1) & mask;
+			}
+			grown[slot] = code;
+		}
+		slots = grown;
+	}
+
+	private static int mix(int hash) {
+		int mixed = hash * 0x9E3779B9;
+		return mixed ^ (mixed >>> 16);
+	}
+}
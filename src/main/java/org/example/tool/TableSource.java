@@ -0,0 +1,24 @@
+package org.example.tool;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Locale;
+
+public interface TableSource {
+	void read(SheetRowHandler handler) throws Exception;
+
+	String[] readHeaderRow() throws Exception;
+
+	long estimatedParsedBytes() throws IOException;
+
+	static TableSource open(Path path, String sheetName) {
+		String name = path.getFileName().toString().toLowerCase(Locale.ROOT);
+		if (name.endsWith(".tsv") || name.endsWith(".tab")) {
+			return new CsvTableSource(path, (byte) '\t');
+		}
+		if (name.endsWith(".csv") || name.endsWith(".txt")) {
+			return new CsvTableSource(path, (byte) 0);
+		}
+		return new WorkbookTableSource(path, sheetName);
+	}
+}
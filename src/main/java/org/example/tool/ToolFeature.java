@@ -13,5 +13,5 @@ public interface ToolFeature {
 
 	void configure(String[] args);
 
-	int run() throws Exception;
+	int run(RowSink sink, RunControl control) throws Exception;
 }
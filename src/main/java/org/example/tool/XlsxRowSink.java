@@ -0,0 +1,95 @@
+package org.example.tool;
+
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.util.WorkbookUtil;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+public class XlsxRowSink implements RowSink, Closeable {
+	private static final int ROW_WINDOW = 200;
+	private static final int WIDTH_SAMPLE_ROWS = 500;
+	private static final int MIN_WIDTH_CHARS = 6;
+	private static final int MAX_WIDTH_CHARS = 60;
+
+	private final Path target;
+	private final SXSSFWorkbook workbook = new SXSSFWorkbook(ROW_WINDOW);
+	private SXSSFSheet sheet;
+	private int nextRow;
+	private int[] widths = new int[0];
+
+	public XlsxRowSink(Path target) {
+		this.target = target;
+	}
+
+	@Override
+	public void startSection(String label, List<String> headers) {
+		endSection();
+		sheet = workbook.createSheet(sheetName(label));
+		nextRow = 0;
+		widths = new int[headers.size()];
+		row(headers);
+	}
+
+	@Override
+	public void row(List<String> values) {
+		Row row = sheet.createRow(nextRow);
+		boolean sample = nextRow <= WIDTH_SAMPLE_ROWS;
+		nextRow++;
+		if (sample && widths.length < values.size()) {
+			widths = Arrays.copyOf(widths, values.size());
+		}
+		for (int col = 0; col < values.size(); col++) {
+			String value = values.get(col);
+			row.createCell(col).setCellValue(value);
+			if (sample && value != null) {
+				widths[col] = Math.max(widths[col], value.length());
+			}
+		}
+	}
+
+	@Override
+	public void endSection() {
+		if (sheet == null) {
+			return;
+		}
+		for (int col = 0; col < widths.length; col++) {
+			int chars = Math.min(MAX_WIDTH_CHARS, Math.max(MIN_WIDTH_CHARS, widths[col] + 2));
+			sheet.setColumnWidth(col, chars * 256);
+		}
+		sheet = null;
+	}
+
+	@Override
+	public void close() throws IOException {
+		try {
+			endSection();
+			if (workbook.getNumberOfSheets() == 0) {
+				workbook.createSheet("Output");
+			}
+			try (OutputStream out = Files.newOutputStream(target)) {
+				workbook.write(out);
+			}
+		} finally {
+			workbook.dispose();
+			workbook.close();
+		}
+	}
+
+	private String sheetName(String label) {
+		String base = WorkbookUtil.createSafeSheetName(label == null ? "Output" : label);
+		String name = base;
+		for (int suffix = 2; workbook.getSheet(name) != null; suffix++) {
+			String tail = " (" + suffix + ")";
+			name = base.substring(0, Math.min(base.length(), 31 - tail.length())) + tail;
+		}
+		return name;
+	}
+}